@@ -0,0 +1,81 @@
+package de.slikey.effectlib.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.util.Vector;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+
+import de.slikey.effectlib.util.VectorUtils;
+
+/**
+ * Time to rotate, scale and move 1k, 10k and 100k points with the scalar kernel, the kernel picked at runtime,
+ * which is the SIMD one as the build starts the benchmark with jdk.incubator.vector, and with a Vector per point.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointTransformBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int points;
+
+    private double[] matrix;
+    private double[] x;
+    private double[] y;
+    private double[] z;
+    private Vector[] vectors;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        x = new double[points];
+        y = new double[points];
+        z = new double[points];
+        vectors = new Vector[points];
+        for (int i = 0; i < points; i++) {
+            x[i] = random.nextDouble() * 10 - 5;
+            y[i] = random.nextDouble() * 10 - 5;
+            z[i] = random.nextDouble() * 10 - 5;
+            vectors[i] = new Vector(x[i], y[i], z[i]);
+        }
+
+        // Close to the identity, so repeated runs keep the points in range
+        matrix = PointTransformKernels.setRotation(PointTransformKernels.identity(), 1e-3, 2e-3, 3e-3);
+        PointTransformKernels.setTranslation(matrix, 1e-6, 0, -1e-6);
+    }
+
+    @Benchmark
+    public double[] scalarKernel() {
+        PointTransformKernels.getScalarKernel().transform(matrix, x, y, z, 0, points);
+        return x;
+    }
+
+    @Benchmark
+    public double[] selectedKernel() {
+        PointTransformKernels.getKernel().transform(matrix, x, y, z, 0, points);
+        return x;
+    }
+
+    @Benchmark
+    public Vector[] vectorUtils() {
+        for (Vector vector : vectors) {
+            VectorUtils.rotateVector(vector, 1e-3, 2e-3, 3e-3).add(new Vector(1e-6, 0, -1e-6));
+        }
+        return vectors;
+    }
+
+}
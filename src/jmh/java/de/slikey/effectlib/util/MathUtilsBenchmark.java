@@ -0,0 +1,108 @@
+package de.slikey.effectlib.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+
+import de.slikey.effectlib.util.MathUtils.TrigAccuracy;
+
+/**
+ * Time per 1k angles of each trig tier against Math.sin and Math.cos, for small angles and for the large ones
+ * effects with a growing step produce.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathUtilsBenchmark {
+
+    private static final int COUNT = 1000;
+
+    @Param({ "6.3", "10000" })
+    public double range;
+
+    private double[] angles;
+    private float[] floatAngles;
+    private double[] sinCos;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        angles = new double[COUNT];
+        floatAngles = new float[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            angles[i] = (random.nextDouble() * 2 - 1) * range;
+            floatAngles[i] = (float) angles[i];
+        }
+        sinCos = new double[2];
+    }
+
+    @Benchmark
+    public double mathSin() {
+        double sum = 0;
+        for (double angle : angles) {
+            sum += Math.sin(angle);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double tableSin() {
+        double sum = 0;
+        for (float angle : floatAngles) {
+            sum += MathUtils.sin(angle);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double fastSin() {
+        double sum = 0;
+        for (double angle : angles) {
+            sum += MathUtils.fastSin(angle, TrigAccuracy.FAST);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double preciseSin() {
+        double sum = 0;
+        for (double angle : angles) {
+            sum += MathUtils.fastSin(angle, TrigAccuracy.PRECISE);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double mathSinAndCos() {
+        double sum = 0;
+        for (double angle : angles) {
+            sum += Math.sin(angle) + Math.cos(angle);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double preciseSinCos() {
+        double sum = 0;
+        for (double angle : angles) {
+            MathUtils.fastSinCos(angle, sinCos, TrigAccuracy.PRECISE);
+            sum += sinCos[0] + sinCos[1];
+        }
+        return sum;
+    }
+
+}
@@ -0,0 +1,70 @@
+package de.slikey.effectlib.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time per 10k random unit vectors, one Vector at a time against filling a buffer, both from the same random stream.
+ * Run with -prof gc to see the allocations of each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomUtilsBenchmark {
+
+    private static final int COUNT = 10000;
+
+    private double[] buffer;
+
+    @Setup
+    public void setup() {
+        buffer = new double[COUNT * 3];
+    }
+
+    @Benchmark
+    public void vectors(Blackhole blackhole) {
+        for (int i = 0; i < COUNT; i++) {
+            blackhole.consume(RandomUtils.getRandomVector());
+        }
+    }
+
+    @Benchmark
+    public double[] vectorBuffer() {
+        RandomUtils.getRandomVectors(buffer, COUNT);
+        return buffer;
+    }
+
+    @Benchmark
+    public void circleVectors(Blackhole blackhole) {
+        for (int i = 0; i < COUNT; i++) {
+            blackhole.consume(RandomUtils.getRandomCircleVector());
+        }
+    }
+
+    @Benchmark
+    public double[] circleVectorBuffer() {
+        RandomUtils.getRandomCircleVectors(buffer, COUNT);
+        return buffer;
+    }
+
+    @Benchmark
+    public double[] angleBuffer() {
+        RandomUtils.getRandomAngles(buffer, COUNT);
+        return buffer;
+    }
+
+}
@@ -0,0 +1,432 @@
+package de.slikey.effectlib;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+
+import org.bukkit.World;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import de.slikey.effectlib.util.Disposable;
+import de.slikey.effectlib.util.DynamicLocation;
+
+/**
+ * Holds many effects bound to fixed locations, such as shrines or torch flames, and only runs those near players.
+ *
+ * Placements are indexed by world and chunk. Every update, the effects of loaded chunks within range of a player are
+ * started together as a batch, see {@link EffectManager#startAll(List)}, and those of chunks no player is near any more
+ * are cancelled. A parked placement keeps only its spec, coordinates and parameters, no Effect or scheduler task.
+ * Placed specs should be infinite repeating effects, a placed effect that ends while its chunk is active is started
+ * again after a few updates, waiting longer each time, and given up once it failed to keep running too often.
+ * The store stops by itself once its manager is disposed.
+ */
+@SuppressWarnings({"unused"})
+public class AmbientEffectStore implements Disposable {
+
+    // Placements that fail this many times in a row are not created again
+    private static final int MAX_FAILURES = 5;
+    private static final int MAX_RETRY_UPDATES = 32;
+
+    private final EffectManager effectManager;
+    private final Map<String, Map<Long, AmbientChunk>> worlds = new HashMap<>();
+    private final Set<AmbientChunk> activeChunks = new HashSet<>();
+    private int placementCount;
+    private int activeCount;
+    private double range = 48;
+    private int updateInterval = 20;
+    private BukkitTask task;
+    private long updates;
+
+    public AmbientEffectStore(EffectManager effectManager) {
+        if (effectManager == null) throw new IllegalArgumentException("EffectManager cannot be null!");
+        this.effectManager = effectManager;
+    }
+
+    /**
+     * Start checking for players near placed effects.
+     */
+    public synchronized void enable() {
+        if (task != null) return;
+        if (isManagerDisposed()) throw new IllegalStateException("EffectManager is disposed and not able to accept any effects.");
+        task = Bukkit.getScheduler().runTaskTimer(effectManager.getOwningPlugin(), new Runnable() {
+            @Override
+            public void run() {
+                update();
+            }
+        }, 1, updateInterval);
+    }
+
+    /**
+     * Stop checking for players and park all running effects.
+     */
+    public synchronized void disable() {
+        if (task != null) task.cancel();
+        task = null;
+        for (AmbientChunk chunk : activeChunks) {
+            park(chunk);
+        }
+        activeChunks.clear();
+    }
+
+    public synchronized boolean isEnabled() {
+        return task != null;
+    }
+
+    @Override
+    public synchronized void dispose() {
+        disable();
+        worlds.clear();
+        placementCount = 0;
+    }
+
+    /**
+     * @param range how close in blocks a player has to be to a chunk for its effects to run
+     */
+    public synchronized void setRange(double range) {
+        this.range = Math.max(0, range);
+    }
+
+    public synchronized double getRange() {
+        return range;
+    }
+
+    /**
+     * @param updateInterval the ticks between checks for players, applied when next enabled
+     */
+    public synchronized void setUpdateInterval(int updateInterval) {
+        this.updateInterval = Math.max(1, updateInterval);
+    }
+
+    public synchronized int getUpdateInterval() {
+        return updateInterval;
+    }
+
+    /**
+     * Place an effect, it starts at the next update if a player is near.
+     *
+     * @param parameters values for "$" parameters by slot of the spec, may be null
+     */
+    public Placement add(Location location, EffectSpec spec, Object[] parameters) {
+        if (spec == null) throw new IllegalArgumentException("EffectSpec cannot be null");
+        return add(location, (Object) spec, parameters);
+    }
+
+    /**
+     * Place an effect from a registered spec, so it follows reloads of the registration.
+     */
+    public Placement add(Location location, EffectRegistration registration, Object[] parameters) {
+        if (registration == null) throw new IllegalArgumentException("EffectRegistration cannot be null");
+        return add(location, (Object) registration, parameters);
+    }
+
+    private synchronized Placement add(Location location, Object source, Object[] parameters) {
+        if (location == null || location.getWorld() == null) throw new IllegalArgumentException("Location must have a world");
+
+        String worldName = location.getWorld().getName();
+        Map<Long, AmbientChunk> chunks = worlds.get(worldName);
+        if (chunks == null) {
+            chunks = new HashMap<>();
+            worlds.put(worldName, chunks);
+        }
+
+        int chunkX = location.getBlockX() >> 4;
+        int chunkZ = location.getBlockZ() >> 4;
+        long key = getChunkKey(chunkX, chunkZ);
+        AmbientChunk chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = new AmbientChunk(worldName, chunkX, chunkZ);
+            chunks.put(key, chunk);
+        }
+
+        Placement placement = new Placement(chunk, source, location, parameters);
+        chunk.placements.add(placement);
+        placementCount++;
+        if (chunk.active) {
+            List<Placement> starting = new ArrayList<>(1);
+            materialise(placement, location.getWorld(), starting);
+            start(starting);
+        }
+        return placement;
+    }
+
+    /**
+     * Remove a placed effect, cancelling it if it is running.
+     *
+     * @return false if it was already removed
+     */
+    public synchronized boolean remove(Placement placement) {
+        AmbientChunk chunk = placement.chunk;
+        if (!chunk.placements.remove(placement)) return false;
+        placementCount--;
+        stop(placement);
+
+        if (chunk.placements.isEmpty()) {
+            activeChunks.remove(chunk);
+            chunk.active = false;
+            Map<Long, AmbientChunk> chunks = worlds.get(chunk.world);
+            if (chunks != null) {
+                chunks.remove(getChunkKey(chunk.x, chunk.z));
+                if (chunks.isEmpty()) worlds.remove(chunk.world);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the placed effects in a chunk, running or not
+     */
+    public synchronized List<Placement> getPlacements(World world, int chunkX, int chunkZ) {
+        Map<Long, AmbientChunk> chunks = worlds.get(world.getName());
+        AmbientChunk chunk = chunks == null ? null : chunks.get(getChunkKey(chunkX, chunkZ));
+        return chunk == null ? new ArrayList<Placement>() : new ArrayList<>(chunk.placements);
+    }
+
+    public synchronized int getPlacementCount() {
+        return placementCount;
+    }
+
+    /**
+     * @return the number of placed effects currently running
+     */
+    public synchronized int getActiveCount() {
+        return activeCount;
+    }
+
+    public synchronized int getActiveChunkCount() {
+        return activeChunks.size();
+    }
+
+    private synchronized void update() {
+        if (isManagerDisposed()) {
+            disable();
+            return;
+        }
+        updates++;
+
+        int radius = (int) Math.ceil(range / 16);
+        Set<AmbientChunk> wanted = new HashSet<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (effectManager.isPlayerIgnored(player)) continue;
+            Location location = player.getLocation();
+            Map<Long, AmbientChunk> chunks = worlds.get(location.getWorld().getName());
+            if (chunks == null) continue;
+
+            int chunkX = location.getBlockX() >> 4;
+            int chunkZ = location.getBlockZ() >> 4;
+            for (int x = chunkX - radius; x <= chunkX + radius; x++) {
+                for (int z = chunkZ - radius; z <= chunkZ + radius; z++) {
+                    AmbientChunk chunk = chunks.get(getChunkKey(x, z));
+                    if (chunk != null) wanted.add(chunk);
+                }
+            }
+        }
+
+        Iterator<AmbientChunk> iterator = activeChunks.iterator();
+        while (iterator.hasNext()) {
+            AmbientChunk chunk = iterator.next();
+            if (wanted.contains(chunk)) continue;
+            park(chunk);
+            iterator.remove();
+        }
+
+        List<Placement> starting = new ArrayList<>();
+        for (AmbientChunk chunk : wanted) {
+            World world = Bukkit.getWorld(chunk.world);
+            if (chunk.active) {
+                // Start again any placed effect that ended or was never started
+                if (world == null) continue;
+                for (Placement placement : chunk.placements) {
+                    if (placement.isRunning(effectManager)) {
+                        placement.failures = 0;
+                        continue;
+                    }
+                    if (placement.effect != null) {
+                        forget(placement);
+                        fail(placement);
+                    }
+                    materialise(placement, world, starting);
+                }
+                continue;
+            }
+            if (world == null || !world.isChunkLoaded(chunk.x, chunk.z)) continue;
+
+            chunk.active = true;
+            activeChunks.add(chunk);
+            for (Placement placement : chunk.placements) {
+                materialise(placement, world, starting);
+            }
+        }
+        start(starting);
+    }
+
+    private void materialise(Placement placement, World world, List<Placement> starting) {
+        if (placement.failures >= MAX_FAILURES || placement.retryUpdate > updates) return;
+
+        Effect effect;
+        try {
+            effect = placement.createEffect(world);
+        } catch (Exception ex) {
+            effectManager.onError("Could not create a placed effect", ex);
+            effect = null;
+        }
+        if (effect == null) {
+            fail(placement);
+            return;
+        }
+        placement.effect = effect;
+        activeCount++;
+        starting.add(placement);
+    }
+
+    private void start(List<Placement> starting) {
+        if (starting.isEmpty()) return;
+        if (isManagerDisposed()) {
+            for (Placement placement : starting) {
+                forget(placement);
+            }
+            return;
+        }
+
+        List<EffectRequest> requests = new ArrayList<>(starting.size());
+        for (Placement placement : starting) {
+            requests.add(new EffectRequest(placement.effect));
+        }
+        Set<Effect> started = Collections.newSetFromMap(new IdentityHashMap<Effect, Boolean>());
+        started.addAll(effectManager.startAll(requests));
+
+        for (Placement placement : starting) {
+            // Left out when dropped as a duplicate of a running effect
+            if (started.contains(placement.effect)) placement.starts = placement.effect.getStarts();
+            else forget(placement);
+        }
+    }
+
+    private void park(AmbientChunk chunk) {
+        chunk.active = false;
+        for (Placement placement : chunk.placements) {
+            stop(placement);
+        }
+    }
+
+    private void stop(Placement placement) {
+        Effect effect = placement.effect;
+        if (effect == null) return;
+        // A pooled effect that ended may already be running for someone else
+        boolean running = placement.isRunning(effectManager);
+        forget(placement);
+        if (running) effect.cancel(false);
+    }
+
+    /**
+     * Wait longer before creating a placement's effect again each time it fails, and give up after too many failures.
+     */
+    private void fail(Placement placement) {
+        placement.failures++;
+        placement.retryUpdate = updates + Math.min(MAX_RETRY_UPDATES, 1 << placement.failures);
+        if (placement.failures == MAX_FAILURES) {
+            Location location = placement.getLocation();
+            effectManager.onError("Placed effect at " + location.getBlockX() + ", " + location.getBlockY() + ", " + location.getBlockZ() + " in " + placement.chunk.world + " failed " + MAX_FAILURES + " times, not starting it again");
+        }
+    }
+
+    private boolean isManagerDisposed() {
+        return effectManager.isDisposed() || effectManager.isDisposedOnTermination();
+    }
+
+    private void forget(Placement placement) {
+        if (placement.effect == null) return;
+        placement.effect = null;
+        activeCount--;
+    }
+
+    private static long getChunkKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    private static final class AmbientChunk {
+
+        private final String world;
+        private final int x;
+        private final int z;
+        private final List<Placement> placements = new ArrayList<>(2);
+        private boolean active;
+
+        private AmbientChunk(String world, int x, int z) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+        }
+    }
+
+    /**
+     * One effect placed in the store.
+     */
+    public static final class Placement {
+
+        private final AmbientChunk chunk;
+        private final Object source;
+        private final double x;
+        private final double y;
+        private final double z;
+        private final float yaw;
+        private final float pitch;
+        private final Object[] parameters;
+        private Effect effect;
+        private int starts;
+        private int failures;
+        private long retryUpdate;
+
+        private Placement(AmbientChunk chunk, Object source, Location location, Object[] parameters) {
+            this.chunk = chunk;
+            this.source = source;
+            x = location.getX();
+            y = location.getY();
+            z = location.getZ();
+            yaw = location.getYaw();
+            pitch = location.getPitch();
+            this.parameters = parameters;
+        }
+
+        public Location getLocation() {
+            return new Location(Bukkit.getWorld(chunk.world), x, y, z, yaw, pitch);
+        }
+
+        /**
+         * @return the running effect, or null while parked
+         */
+        public Effect getEffect() {
+            Effect current = effect;
+            return current != null && !current.isDone() && current.getStarts() == starts ? current : null;
+        }
+
+        /**
+         * @return true if this placement's effect failed to keep running too many times in a row, and is not created again
+         */
+        public boolean hasFailed() {
+            return failures >= MAX_FAILURES;
+        }
+
+        /**
+         * @return true if the effect started for this placement is still running, and was not handed out again by a pool
+         */
+        private boolean isRunning(EffectManager effectManager) {
+            return getEffect() != null && effectManager.isStarted(effect);
+        }
+
+        private Effect createEffect(World world) {
+            DynamicLocation origin = new DynamicLocation(new Location(world, x, y, z, yaw, pitch));
+            if (source instanceof EffectRegistration) return ((EffectRegistration) source).getEffect(origin, null, parameters, null);
+            return ((EffectSpec) source).getEffect(origin, null, parameters, null);
+        }
+    }
+
+}
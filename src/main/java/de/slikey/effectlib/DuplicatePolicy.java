@@ -0,0 +1,25 @@
+package de.slikey.effectlib;
+
+/**
+ * What {@link EffectManager} does when an effect is started while an identical one is still running,
+ * see {@link EffectManager#setDuplicatePolicy(DuplicatePolicy)}.
+ *
+ * Effects are identical when they were created from the same spec or registration, or the same configuration,
+ * with the same parameters, origin, target and target player.
+ */
+public enum DuplicatePolicy {
+
+    /**
+     * Start every effect, the default.
+     */
+    ALLOW,
+    /**
+     * Don't start the new effect, instead let the running one last as long as the new one would have.
+     */
+    MERGE,
+    /**
+     * Don't start the new effect.
+     */
+    REJECT
+
+}
@@ -1,10 +1,20 @@
 package de.slikey.effectlib;
 
+import java.util.Map;
+import java.util.Set;
 import java.util.List;
+import java.util.UUID;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import org.bukkit.Color;
+import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.Particle;
 import org.bukkit.Location;
@@ -13,23 +23,82 @@ import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.configuration.ConfigurationSection;
 
+import de.slikey.effectlib.util.Orientation;
 import de.slikey.effectlib.util.RandomUtils;
 import de.slikey.effectlib.util.DynamicLocation;
 import de.slikey.effectlib.util.ParticleOptions;
+import de.slikey.effectlib.util.ParticleClustering;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public abstract class Effect implements Runnable {
 
+    private static final int IDLE = 0;
+    private static final int RUNNING = 1;
+    private static final int RELEASED = 2;
+    private static final AtomicIntegerFieldUpdater<Effect> RUN_STATE = AtomicIntegerFieldUpdater.newUpdater(Effect.class, "runState");
+    private static final AtomicIntegerFieldUpdater<Effect> MERGED_ITERATIONS = AtomicIntegerFieldUpdater.newUpdater(Effect.class, "mergedIterations");
+
     protected final EffectManager effectManager;
     protected String subEffectClass = null;
     protected DynamicLocation origin = null;
     protected DynamicLocation target = null;
     protected int maxIterations;
-    private boolean done = false;
+    private volatile boolean done = false;
+    // IDLE, RUNNING or RELEASED, changed atomically so a pooled effect is never released while it iterates.
+    // Not reset by the pool, a released effect stays released until it is prepared again.
+    private transient volatile int runState = IDLE;
+    // Counts starts, so a holder can tell when a pooled instance it started was handed out and started again
+    private transient int starts;
     private boolean playing = false;
     private long startTime;
+    private EffectRegistration registration;
+    private EffectSpec spec;
+    private Object[] specParameters;
+    private int displayedParticles;
+    private int lastDisplayedParticles;
+    private Set<String> tags;
+
+    // What EffectManager indexed this effect under when it was started
+    UUID indexedEntity;
+    UUID indexedTargetEntity;
+    String[] indexedTags;
+
+    // Where EffectManager placed this effect when staggering repeating effects, a period of 0 if it is not staggered
+    int staggerSlot;
+    int staggerPeriod;
+    double staggerWeight;
+
+    // The configured values of the Scalable fields and period, while scaled by LevelOfDetail
+    int[] detailBase;
+    int detailBasePeriod;
+    double detailFactor = 1;
+
+    // What this effect was created from, to find duplicates of it, and what EffectManager found it under
+    Object identitySource;
+    Object[] identityParameters;
+    EffectIdentity identity;
+    // Iterations of duplicates merged into this effect from other threads, applied when it next runs, 0 if none
+    private volatile int mergedIterations;
+
+    // Set by EffectManager while no player can see this effect
+    boolean dormant;
+    private int dormantIterations;
+    private int viewerCheckTicks;
+
+    // Where an instanced effect is shown this iteration, and who can see each anchor
+    private List<DynamicLocation> anchors;
+    private Location[] anchorLocations;
+    private List<List<Player>> anchorViewers;
+    private double anchorOriginX;
+    private double anchorOriginY;
+    private double anchorOriginZ;
+    private Location anchorPoint;
+
+    // Particles collected during an iteration when the manager clusters them
+    private ParticleClustering clustering;
+    private Map<ParticleCluster.Key, ParticleCluster> clusters;
 
     public EffectType type = EffectType.INSTANT;
     public Particle particle;
@@ -68,6 +137,7 @@ public abstract class Effect implements Runnable {
     public byte materialData;
     public String blockData;
     public long blockDuration;
+    @Scalable
     public int particleCount = 1;
     public float particleOffsetX = 0;
     public float particleOffsetY = 0;
@@ -76,6 +146,15 @@ public abstract class Effect implements Runnable {
     public boolean asynchronous = true;
     public boolean disappearWithOriginEntity = false;
     public boolean disappearWithTargetEntity = false;
+    /**
+     * Effects with a higher priority keep their particles longer when the {@link ParticleBudget} is exceeded.
+     * Above 0, particles are never thinned out.
+     */
+    public int priority = 0;
+    /**
+     * Cosmetic repeating effects run less often while {@link LevelOfDetail} has lowered the detail.
+     */
+    public boolean cosmetic = false;
 
     public EffectManager getEffectManager() {
         return effectManager;
@@ -500,6 +579,13 @@ public abstract class Effect implements Runnable {
         return origin;
     }
 
+    /**
+     * The cached rotation of the origin's current direction, see {@link DynamicLocation#getOrientation()}.
+     */
+    public Orientation getOrientation() {
+        return origin == null ? null : origin.getOrientation();
+    }
+
     /**
      * Set the Location this Effect is centered on.
      */
@@ -574,6 +660,68 @@ public abstract class Effect implements Runnable {
         return playing;
     }
 
+    /**
+     * Tag this effect so it can be found with {@link EffectManager#getEffectsByTag(String)}.
+     * Tags must be added before the effect is started.
+     */
+    public void addTag(String tag) {
+        if (tags == null) tags = new HashSet<>();
+        tags.add(tag);
+    }
+
+    public boolean hasTag(String tag) {
+        return tags != null && tags.contains(tag);
+    }
+
+    public Set<String> getTags() {
+        return tags == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(tags);
+    }
+
+    /**
+     * Show this effect at each of these locations instead of at its origin.
+     *
+     * The effect still computes its particles around its origin, once per iteration, and each particle is shown
+     * at the same offset from every anchor. Viewers are found for each anchor separately.
+     * Add the origin as an anchor to show the effect there as well.
+     *
+     * @param anchors the locations to show this effect at, or null to show it at its origin
+     */
+    public void setAnchors(List<DynamicLocation> anchors) {
+        this.anchors = anchors == null ? null : new ArrayList<>(anchors);
+    }
+
+    public void addAnchor(DynamicLocation anchor) {
+        if (anchors == null) anchors = new ArrayList<>();
+        anchors.add(anchor);
+    }
+
+    public List<DynamicLocation> getAnchors() {
+        return anchors == null ? Collections.<DynamicLocation>emptyList() : Collections.unmodifiableList(anchors);
+    }
+
+    /**
+     * @return the registration this effect was started from, or null
+     */
+    public EffectRegistration getRegistration() {
+        return registration;
+    }
+
+    /**
+     * @return the registered spec this effect is currently configured from, or null
+     */
+    public EffectSpec getSpec() {
+        return spec;
+    }
+
+    void setRegistration(EffectRegistration registration, EffectSpec spec, Object[] parameters) {
+        this.registration = registration;
+        this.spec = spec;
+        this.specParameters = parameters;
+        // Effects of one registration stay duplicates when its spec is replaced
+        identitySource = registration;
+        identityParameters = parameters;
+    }
+
     public long getStartTime() {
         return startTime;
     }
@@ -634,8 +782,65 @@ public abstract class Effect implements Runnable {
      */
     public void onDone() { }
 
+    /**
+     * Called from a background thread by {@link EffectManager#preload}, on a configured effect that is never started.
+     * Effects should load anything that is slow the first time here, such as equations, images or fonts.
+     */
+    public void preload() { }
+
+    /**
+     * Called when a pooled effect is returned to its EffectManager, before it is reset for reuse.
+     * Effects that hold on to other effects should release them here.
+     */
+    protected void onRelease() { }
+
+    /**
+     * Called on a running effect after its registered spec was replaced, see {@link EffectRegistration}.
+     * Effects that cache geometry should rebuild it here if it depends on any of the changed fields.
+     *
+     * @param changedFields the names of the fields that were assigned new values
+     */
+    protected void onReload(Set<String> changedFields) { }
+
+    /**
+     * Whether this effect may stop running while no player can see it, see {@link EffectManager#enableDormancy(boolean)}.
+     * Effects that do more than display particles, such as moving entities, should return false.
+     */
+    protected boolean canBeDormant() {
+        return type == EffectType.REPEATING;
+    }
+
+    /**
+     * Called when this effect wakes up after iterations were skipped because no player could see it.
+     * Effects that animate by counting steps should advance them here, so they continue where they would have been.
+     *
+     * @param iterations the number of iterations that were skipped
+     */
+    protected void skipIterations(int iterations) { }
+
     @Override
     public final void run() {
+        // Released by another thread, a late run of its old task
+        if (!RUN_STATE.compareAndSet(this, IDLE, RUNNING)) return;
+        try {
+            iterate();
+        } finally {
+            runState = IDLE;
+            // A pooled effect can only be reused once it is no longer running
+            if (done) release();
+        }
+    }
+
+    /**
+     * Return this effect to the pool, unless it is running, then the running thread releases it when it finishes.
+     */
+    private void release() {
+        if (!RUN_STATE.compareAndSet(this, IDLE, RELEASED)) return;
+        // Not pooled, or started again from a callback, so it can keep running
+        if (!effectManager.releaseEffect(this)) RUN_STATE.compareAndSet(this, RELEASED, IDLE);
+    }
+
+    private void iterate() {
         if (!validate()) {
             cancel();
             return;
@@ -646,13 +851,37 @@ public abstract class Effect implements Runnable {
             return;
         }
 
-        try {
-            if (RandomUtils.checkProbability(probability)) {
-                onRun();
+        int merged = MERGED_ITERATIONS.getAndSet(this, 0);
+        if (merged == -1 || (merged > 0 && iterations != -1)) iterations = merged == -1 ? -1 : Math.max(iterations, merged);
+
+        if (registration != null && type == EffectType.REPEATING && iterations == -1) reload();
+        if (priority <= 0 && LevelOfDetail.getInstance().getFactor() != detailFactor) updateDetail();
+
+        if (isDormant()) {
+            dormantIterations++;
+        } else {
+            EffectCost cost = effectManager.getEffectCost(getClass());
+            long runStart = cost == null ? 0 : System.nanoTime();
+            boolean ran = false;
+            displayedParticles = 0;
+            updateAnchors();
+            clustering = effectManager.getParticleClustering();
+            try {
+                if (RandomUtils.checkProbability(probability) && ParticleBudget.getInstance().shouldRun(this, lastDisplayedParticles)) {
+                    ran = true;
+                    onRun();
+                    flushClusters();
+                    lastDisplayedParticles = displayedParticles;
+                }
+            } catch (Exception ex) {
+                done();
+                effectManager.onError(ex);
+            } finally {
+                clustering = null;
+                if (clusters != null) clusters.clear();
             }
-        } catch (Exception ex) {
-            done();
-            effectManager.onError(ex);
+            // A skipped run would lower the measured cost of the effect type
+            if (cost != null && ran) cost.record(System.nanoTime() - runStart, displayedParticles);
         }
 
         if (type == EffectType.REPEATING) {
@@ -664,6 +893,83 @@ public abstract class Effect implements Runnable {
         }
     }
 
+    private void reload() {
+        EffectSpec current = registration.getSpec();
+        if (current == spec) return;
+
+        EffectSpec previous = spec;
+        spec = current;
+        if (current.getEffectClass() != getClass()) {
+            effectManager.onError("Can not reload a running " + getClass().getSimpleName() + " as a " + current.getEffectClass().getSimpleName());
+            return;
+        }
+
+        int previousPeriod = period;
+        boolean previousAsynchronous = asynchronous;
+        // Compare the new spec against the configured values rather than scaled ones, they are scaled again after
+        restoreDetail();
+        specParameters = current.remapParameters(previous, specParameters);
+        Set<String> changedFields = current.reapply(this, previous, specParameters);
+        if (changedFields.isEmpty()) return;
+
+        initialize();
+        if (changedFields.contains("duration") || changedFields.contains("iterations")) updateDuration();
+        onReload(changedFields);
+        if (period != previousPeriod || asynchronous != previousAsynchronous) effectManager.reschedule(this);
+    }
+
+    private boolean isDormant() {
+        if (!dormant && (!effectManager.isDormancyEnabled() || !canBeDormant())) return false;
+
+        // Looking for viewers costs about as much as displaying to them, so only look now and then
+        viewerCheckTicks -= period;
+        if (viewerCheckTicks > 0 && effectManager.isDormancyEnabled()) return dormant;
+        viewerCheckTicks = effectManager.getDormancyCheckInterval();
+
+        boolean hasViewers = !effectManager.isDormancyEnabled() || !canBeDormant() || effectManager.hasViewers(this);
+        if (hasViewers != dormant) return dormant;
+        effectManager.setDormant(this, !hasViewers);
+        if (hasViewers && dormantIterations > 0) {
+            int skipped = dormantIterations;
+            dormantIterations = 0;
+            try {
+                skipIterations(skipped);
+            } catch (Exception ex) {
+                effectManager.onError(ex);
+            }
+        }
+        return dormant;
+    }
+
+    private void updateDetail() {
+        double factor = LevelOfDetail.getInstance().getFactor();
+        Set<String> scaledFields;
+        try {
+            scaledFields = LevelOfDetail.getInstance().apply(this, factor);
+        } catch (IllegalAccessException ex) {
+            effectManager.onError("Could not scale " + getClass().getSimpleName(), ex);
+            detailFactor = factor;
+            return;
+        }
+        if (!scaledFields.isEmpty()) onReload(scaledFields);
+
+        if (!cosmetic || type != EffectType.REPEATING) return;
+        int scaledPeriod = Math.max(1, (int) Math.round(detailBasePeriod / factor));
+        if (scaledPeriod == period) return;
+        // Keep a finite effect playing for as long as it would have
+        if (iterations > 0) iterations = Math.max(1, (int) Math.round((double) iterations * period / scaledPeriod));
+        period = scaledPeriod;
+        effectManager.reschedule(this);
+    }
+
+    private void restoreDetail() {
+        try {
+            LevelOfDetail.getInstance().restore(this);
+        } catch (IllegalAccessException ex) {
+            effectManager.onError("Could not restore " + getClass().getSimpleName(), ex);
+        }
+    }
+
     /**
      * Effects should override this if they want to be reusable, this is called prior to starting so
      * state can be reset.
@@ -673,13 +979,37 @@ public abstract class Effect implements Runnable {
     }
 
     public void prepare() {
+        runState = IDLE;
+        starts++;
+        restoreDetail();
         reset();
         updateDuration();
     }
 
     public final void start() {
+        startOrMerge();
+    }
+
+    /**
+     * Start this effect, see {@link EffectManager#setDuplicatePolicy(DuplicatePolicy)}.
+     *
+     * @return this effect, the running effect it was merged into, or null if it was rejected as a duplicate
+     */
+    final Effect startOrMerge() {
         prepare();
-        effectManager.start(this);
+        Effect started = effectManager.startEffect(this);
+        if (started == this && !done) playing = true;
+        return started;
+    }
+
+    int getStarts() {
+        return starts;
+    }
+
+    /**
+     * Mark a prepared effect as playing, when it was started in a batch rather than by {@link #start()}.
+     */
+    void setPlaying() {
         playing = true;
     }
 
@@ -719,11 +1049,11 @@ public abstract class Effect implements Runnable {
     }
 
     protected void updateLocation() {
-        if (origin != null) origin.update();
+        if (origin != null) origin.update(effectManager.getEntityLocationCache());
     }
 
     protected void updateTarget() {
-        if (target != null) target.update();
+        if (target != null) target.update(effectManager.getEntityLocationCache());
     }
 
     protected void display(Particle effect, Location location) {
@@ -762,18 +1092,150 @@ public abstract class Effect implements Runnable {
 
             ParticleOptions options = new ParticleOptions(particleOffsetX, particleOffsetY, particleOffsetZ, speed, amount, particleSize, currentColor, currentToColor, arrivalTime, material, materialData, blockData, blockDuration, shriekDelay, sculkChargeRotation);
             options.target = target;
+            options.priority = priority;
 
-            effectManager.display(particle, options, location, visibleRange, targetPlayers);
+            if (clustering != null) addToCluster(particle, options, location);
+            else send(particle, options, location);
         }
 
         if (subEffectClass != null) effectManager.start(subEffectClass, subEffect, location);
     }
 
+    private void send(Particle particle, ParticleOptions options, Location location) {
+        if (anchorLocations != null) {
+            displayAnchored(particle, options, location, options.amount);
+            return;
+        }
+        displayedParticles += Math.max(1, options.amount);
+        if (ParticleBudget.getInstance().allow(priority, options.amount)) effectManager.display(particle, options, location, visibleRange, targetPlayers);
+    }
+
+    private void addToCluster(Particle particle, ParticleOptions options, Location location) {
+        if (clusters == null) clusters = new LinkedHashMap<>();
+        ParticleCluster.Key key = ParticleCluster.getKey(particle, options, location, clustering.getVoxelSize());
+        ParticleCluster cluster = clusters.get(key);
+        if (cluster == null) {
+            cluster = new ParticleCluster(particle, options, location);
+            clusters.put(key, cluster);
+        }
+        cluster.add(location, Math.max(1, options.amount));
+    }
+
+    /**
+     * Send the particles collected during an iteration, one call per cluster.
+     */
+    private void flushClusters() {
+        if (clustering == null || clusters == null || clusters.isEmpty()) return;
+
+        int savedCalls = 0;
+        int duplicates = 0;
+        for (ParticleCluster cluster : clusters.values()) {
+            int count = cluster.getCount();
+            savedCalls += count - 1;
+            if (count > 1 && cluster.isDuplicate()) duplicates += count - 1;
+            send(cluster.getParticle(), cluster.getOptions(), cluster.getLocation());
+        }
+        clustering.recordSaved(savedCalls, duplicates);
+    }
+
+    /**
+     * Show a particle at each anchor, at the same offset from it as the particle has from the origin.
+     */
+    private void displayAnchored(Particle particle, ParticleOptions options, Location location, int amount) {
+        double x = location.getX() - anchorOriginX;
+        double y = location.getY() - anchorOriginY;
+        double z = location.getZ() - anchorOriginZ;
+        if (anchorPoint == null) anchorPoint = location.clone();
+        anchorPoint.setYaw(location.getYaw());
+        anchorPoint.setPitch(location.getPitch());
+
+        for (int i = 0; i < anchorLocations.length; i++) {
+            Location anchor = anchorLocations[i];
+            List<Player> viewers = anchorViewers.get(i);
+            if (anchor == null || viewers.isEmpty()) continue;
+
+            displayedParticles += Math.max(1, amount);
+            if (!ParticleBudget.getInstance().allow(priority, amount)) continue;
+            anchorPoint.setWorld(anchor.getWorld());
+            anchorPoint.setX(anchor.getX() + x);
+            anchorPoint.setY(anchor.getY() + y);
+            anchorPoint.setZ(anchor.getZ() + z);
+            effectManager.display(particle, options, anchorPoint, visibleRange, viewers);
+        }
+    }
+
+    /**
+     * Find the anchor locations and their viewers once per iteration, rather than for every particle.
+     */
+    private void updateAnchors() {
+        if (anchors == null || anchors.isEmpty()) {
+            anchorLocations = null;
+            return;
+        }
+
+        // Anchors following an entity are dropped once it is gone, even after the reference to it was cleared
+        Iterator<DynamicLocation> iterator = anchors.iterator();
+        while (iterator.hasNext()) {
+            DynamicLocation anchor = iterator.next();
+            if (anchor == null || (anchor.isEntityBound() && !anchor.hasValidEntity())) iterator.remove();
+        }
+        if (anchors.isEmpty()) {
+            anchorLocations = null;
+            return;
+        }
+
+        Location location = getLocation();
+        anchorOriginX = location.getX();
+        anchorOriginY = location.getY();
+        anchorOriginZ = location.getZ();
+
+        int count = anchors.size();
+        if (anchorLocations == null || anchorLocations.length != count) anchorLocations = new Location[count];
+        if (anchorViewers == null) anchorViewers = new ArrayList<>(count);
+        while (anchorViewers.size() < count) anchorViewers.add(new ArrayList<Player>());
+        while (anchorViewers.size() > count) anchorViewers.remove(anchorViewers.size() - 1);
+
+        Collection<? extends Player> players = targetPlayers;
+        if (players == null) players = targetPlayer == null ? Bukkit.getOnlinePlayers() : Collections.singletonList(targetPlayer);
+        double squared = visibleRange * visibleRange;
+        for (int i = 0; i < count; i++) {
+            DynamicLocation anchor = anchors.get(i);
+            List<Player> viewers = anchorViewers.get(i);
+            viewers.clear();
+            anchorLocations[i] = null;
+
+            anchor.update(effectManager.getEntityLocationCache());
+            Location anchorLocation = anchor.getLocation();
+            if (anchorLocation == null) continue;
+            anchorLocations[i] = anchorLocation;
+            for (Player player : players) {
+                if (player.getWorld() != anchorLocation.getWorld()) continue;
+                if (player.getLocation().distanceSquared(anchorLocation) > squared) continue;
+                viewers.add(player);
+            }
+        }
+    }
+
+    /**
+     * Make this effect last as long as a duplicate that was merged into it, from its next run on.
+     * The effect's own thread applies it, as it counts down its iterations without a lock.
+     *
+     * @param iterations the iterations of the duplicate, -1 to run until cancelled
+     */
+    void mergeIterations(int iterations) {
+        while (true) {
+            int current = mergedIterations;
+            int merged = current == -1 || iterations == -1 ? -1 : Math.max(current, iterations);
+            if (merged == current || MERGED_ITERATIONS.compareAndSet(this, current, merged)) return;
+        }
+    }
+
     private void done() {
         playing = false;
         done = true;
         effectManager.done(this);
         onDone();
+        release();
     }
 
     public void reloadParameters() {
@@ -0,0 +1,127 @@
+package de.slikey.effectlib;
+
+import java.util.List;
+import java.util.Iterator;
+import java.util.ArrayList;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Runs a batch of effects started by {@link EffectManager#startAll(List)} from a single scheduler task.
+ *
+ * The task runs every tick and counts down each effect's delay and period itself. Each effect gets a
+ * {@link Member} in place of its own BukkitTask, so cancelling or removing it works the same as for any other effect.
+ * The batch task stops once all of its effects are done.
+ */
+final class EffectBatch implements Runnable {
+
+    private final Plugin plugin;
+    private final boolean asynchronous;
+    private final List<Member> members = new ArrayList<>();
+    private volatile BukkitTask task;
+
+    EffectBatch(Plugin plugin, boolean asynchronous) {
+        this.plugin = plugin;
+        this.asynchronous = asynchronous;
+    }
+
+    boolean isAsynchronous() {
+        return asynchronous;
+    }
+
+    boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    /**
+     * Add an effect, before the batch is scheduled.
+     *
+     * @param phase extra ticks to wait before the first run
+     */
+    Member add(Effect effect, int phase) {
+        Member member = new Member(this, effect, Math.max(0, effect.getType() == EffectType.INSTANT ? 0 : effect.getDelay()) + phase);
+        members.add(member);
+        return member;
+    }
+
+    void setTask(BukkitTask task) {
+        this.task = task;
+    }
+
+    @Override
+    public void run() {
+        Iterator<Member> iterator = members.iterator();
+        while (iterator.hasNext()) {
+            Member member = iterator.next();
+            if (member.cancelled) {
+                iterator.remove();
+                continue;
+            }
+            if (member.wait > 0) {
+                member.wait--;
+                continue;
+            }
+
+            Effect effect = member.effect;
+            if (effect.getType() == EffectType.REPEATING) {
+                member.wait = effect.getPeriod() - 1;
+            } else {
+                // Instant and delayed effects only run once, like a single scheduled task
+                member.cancelled = true;
+            }
+            try {
+                effect.run();
+            } catch (Exception ex) {
+                effect.getEffectManager().onError(ex);
+            }
+            if (member.cancelled) iterator.remove();
+        }
+
+        if (members.isEmpty() && task != null) task.cancel();
+    }
+
+    /**
+     * Stands in for the scheduler task of one effect in the batch.
+     */
+    static final class Member implements BukkitTask {
+
+        private final EffectBatch batch;
+        private final Effect effect;
+        private volatile boolean cancelled;
+        private int wait;
+
+        private Member(EffectBatch batch, Effect effect, int wait) {
+            this.batch = batch;
+            this.effect = effect;
+            this.wait = wait;
+        }
+
+        @Override
+        public int getTaskId() {
+            BukkitTask task = batch.task;
+            return task == null ? -1 : task.getTaskId();
+        }
+
+        @Override
+        public Plugin getOwner() {
+            return batch.plugin;
+        }
+
+        @Override
+        public boolean isSync() {
+            return !batch.asynchronous;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+}
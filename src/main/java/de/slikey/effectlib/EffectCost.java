@@ -0,0 +1,40 @@
+package de.slikey.effectlib;
+
+/**
+ * The average cost of one run of an effect class, used by {@link EffectManager} to stagger repeating effects.
+ *
+ * Averages are exponentially weighted so they follow changes in configuration, and are updated without locking.
+ * A lost update now and then makes no difference to an estimate.
+ */
+final class EffectCost {
+
+    private static final double WEIGHT = 0.1;
+
+    private volatile boolean sampled;
+    private volatile double particles;
+    private volatile double nanos;
+
+    void record(long runNanos, int runParticles) {
+        if (!sampled) {
+            particles = runParticles;
+            nanos = runNanos;
+            sampled = true;
+            return;
+        }
+        particles += (runParticles - particles) * WEIGHT;
+        nanos += (runNanos - nanos) * WEIGHT;
+    }
+
+    boolean isSampled() {
+        return sampled;
+    }
+
+    double getParticles() {
+        return particles;
+    }
+
+    double getNanos() {
+        return nanos;
+    }
+
+}
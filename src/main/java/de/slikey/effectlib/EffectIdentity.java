@@ -0,0 +1,80 @@
+package de.slikey.effectlib;
+
+import java.util.UUID;
+import java.util.Arrays;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import de.slikey.effectlib.util.DynamicLocation;
+
+/**
+ * What makes two running effects duplicates of each other, see {@link DuplicatePolicy}.
+ *
+ * The source is compared by reference, so only effects created from the same spec, registration
+ * or configuration section can be duplicates. Locations are compared to 1/16 of a block.
+ */
+final class EffectIdentity {
+
+    private final Object source;
+    private final Object[] parameters;
+    private final Object origin;
+    private final Object target;
+    private final UUID targetPlayer;
+    private final int hash;
+
+    private EffectIdentity(Object source, Object[] parameters, Object origin, Object target, UUID targetPlayer) {
+        this.source = source;
+        this.parameters = parameters;
+        this.origin = origin;
+        this.target = target;
+        this.targetPlayer = targetPlayer;
+        int result = System.identityHashCode(source);
+        result = 31 * result + Arrays.deepHashCode(parameters);
+        result = 31 * result + (origin == null ? 0 : origin.hashCode());
+        result = 31 * result + (target == null ? 0 : target.hashCode());
+        result = 31 * result + (targetPlayer == null ? 0 : targetPlayer.hashCode());
+        hash = result;
+    }
+
+    /**
+     * @return the identity of an effect, or null if it was not created from a spec or configuration
+     */
+    static EffectIdentity of(Effect effect) {
+        if (effect.identitySource == null) return null;
+        Player targetPlayer = effect.getTargetPlayer();
+        return new EffectIdentity(effect.identitySource, effect.identityParameters, getKey(effect.getDynamicOrigin()),
+            getKey(effect.getDynamicTarget()), targetPlayer == null ? null : targetPlayer.getUniqueId());
+    }
+
+    private static Object getKey(DynamicLocation location) {
+        if (location == null) return null;
+        Entity entity = location.getEntity();
+        if (entity != null) return entity.getUniqueId();
+
+        Location current = location.getLocation();
+        if (current == null) return null;
+        return Arrays.<Object>asList(current.getWorld() == null ? null : current.getWorld().getName(),
+            Math.round(current.getX() * 16), Math.round(current.getY() * 16), Math.round(current.getZ() * 16));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof EffectIdentity)) return false;
+        EffectIdentity identity = (EffectIdentity) other;
+        return hash == identity.hash && source == identity.source && Arrays.deepEquals(parameters, identity.parameters)
+            && equal(origin, identity.origin) && equal(target, identity.target) && equal(targetPlayer, identity.targetPlayer);
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+}
@@ -3,6 +3,7 @@ package de.slikey.effectlib;
 import java.io.File;
 import java.util.Map;
 import java.util.Set;
+import java.util.Arrays;
 import java.awt.Font;
 import java.util.List;
 import java.util.UUID;
@@ -11,11 +12,15 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.WeakHashMap;
 import java.lang.reflect.Field;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.concurrent.ConcurrentHashMap;
 import java.awt.image.BufferedImage;
 import java.lang.reflect.Constructor;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 
 import org.bukkit.Color;
 import org.bukkit.Bukkit;
@@ -34,6 +39,8 @@ import org.bukkit.configuration.ConfigurationSection;
 import com.google.common.base.CaseFormat;
 
 import de.slikey.effectlib.util.*;
+import de.slikey.effectlib.binder.EffectBinder;
+import de.slikey.effectlib.binder.EffectBinders;
 
 /**
  * Dispose the EffectManager if you don't need it anymore.
@@ -44,8 +51,10 @@ import de.slikey.effectlib.util.*;
 @SuppressWarnings({"unused"})
 public class EffectManager implements Disposable {
 
+    // Enough ticks to line up all common periods, 60 is divisible by 1 through 6, 10, 12, 15, 20 and 30
+    private static final int STAGGER_SLOTS = 60;
     private static final List<EffectManager> effectManagers = new ArrayList<>();
-    private static final Map<String, Class<? extends Effect>> effectClasses = new HashMap<>();
+    private static final Map<String, Class<? extends Effect>> effectClasses = new ConcurrentHashMap<>();
     private Plugin owningPlugin;
     private Logger logger;
     private Map<Effect, BukkitTask> effects;
@@ -58,6 +67,42 @@ public class EffectManager implements Disposable {
     private File imageCacheFolder;
     private Map<String, BufferedImage[]> imageCache;
     private final Set<UUID> ignoredPlayers = new HashSet<>();
+    private boolean entitySnapshots = true;
+    private volatile EntityLocationCache entityLocationCache;
+    private volatile boolean effectPooling = false;
+    private int effectPoolSize = 32;
+    private final Map<Class<? extends Effect>, EffectPool> effectPools = new HashMap<>();
+    private final Map<Effect, EffectPool.Leak> pooledEffects = new WeakHashMap<>();
+    private final Set<EffectPool.Leak> poolLeaks = new HashSet<>();
+    private final ReferenceQueue<Effect> poolLeakQueue = new ReferenceQueue<>();
+    private final Map<String, EffectRegistration> registrations = new ConcurrentHashMap<>();
+    private volatile boolean staggering = false;
+    private boolean staggerByTime = false;
+    private int maxStaggerDelay = 10;
+    private volatile long currentTick;
+    private BukkitTask tickTask;
+    private final double[] staggerLoad = new double[STAGGER_SLOTS];
+    private final Map<Class<? extends Effect>, EffectCost> effectCosts = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Effect>> effectsByEntity = new HashMap<>();
+    private final Map<String, Set<Effect>> effectsByTag = new HashMap<>();
+    private volatile DistanceThinning distanceThinning;
+    private volatile ViewCulling viewCulling;
+    private volatile ParticleClustering particleClustering;
+    private volatile boolean dormancy = false;
+    private volatile int dormancyCheckInterval = 10;
+    private volatile double dormancyMargin = 8;
+    private int dormantEffects;
+    private volatile DuplicatePolicy duplicatePolicy = DuplicatePolicy.ALLOW;
+    private final Map<EffectIdentity, Effect> effectsByIdentity = new HashMap<>();
+    private long mergedDuplicates;
+    private long rejectedDuplicates;
+
+    static {
+        // The generated index already knows the built-in effects, no need to look them up by name
+        for (EffectBinder binder : EffectBinders.getBinders()) {
+            effectClasses.put(binder.getEffectClass().getName(), binder.getEffectClass());
+        }
+    }
 
     public EffectManager(Plugin owningPlugin) {
         this(owningPlugin, owningPlugin.getLogger());
@@ -71,7 +116,7 @@ public class EffectManager implements Disposable {
         this.logger = logger;
 
         imageCacheFolder = new File(owningPlugin.getDataFolder(), "imagecache");
-        imageCache = new HashMap<>();
+        imageCache = new ConcurrentHashMap<>();
         effects = new HashMap<>();
         disposed = false;
         disposeOnTermination = false;
@@ -148,6 +193,173 @@ public class EffectManager implements Disposable {
     }
 
     public Effect getEffectByClassName(String effectClass) {
+        Class<? extends Effect> effectLibClass = getEffectClass(effectClass);
+        if (effectLibClass == null) return null;
+
+        Effect effect = null;
+        try {
+            effect = newEffect(effectLibClass, null, null);
+        } catch (Exception ex) {
+            onError("Error loading EffectLib class: " + effectClass, ex);
+        }
+
+        return effect;
+    }
+
+    /**
+     * Create an effect, or take one from the pool if pooling is enabled.
+     *
+     * @param binder the binder for this class if already known, else it is looked up
+     * @param constructor the constructor for this class if already known, only used when there is no binder
+     */
+    Effect newEffect(Class<? extends Effect> effectClass, EffectBinder binder, Constructor<? extends Effect> constructor) throws ReflectiveOperationException {
+        Effect effect = effectPooling ? takePooledEffect(effectClass) : null;
+        if (effect != null) return effect;
+
+        if (binder == null) binder = EffectBinders.getBinder(effectClass);
+        if (binder != null) {
+            effect = binder.create(this);
+        } else {
+            if (constructor == null) constructor = effectClass.getConstructor(EffectManager.class);
+            effect = constructor.newInstance(this);
+        }
+
+        if (effectPooling) {
+            synchronized (this) {
+                trackPooledEffect(effect);
+            }
+        }
+        return effect;
+    }
+
+    private Effect takePooledEffect(Class<? extends Effect> effectClass) {
+        synchronized (this) {
+            if (debug) reportPoolLeaks();
+
+            EffectPool pool = effectPools.get(effectClass);
+            Effect effect = pool == null ? null : pool.poll();
+            if (effect != null) trackPooledEffect(effect);
+            return effect;
+        }
+    }
+
+    private void trackPooledEffect(Effect effect) {
+        EffectPool.Leak leak = null;
+        if (debug) {
+            leak = new EffectPool.Leak(effect, poolLeakQueue);
+            poolLeaks.add(leak);
+        }
+        pooledEffects.put(effect, leak);
+    }
+
+    private void reportPoolLeaks() {
+        Reference<? extends Effect> reference;
+        while ((reference = poolLeakQueue.poll()) != null) {
+            EffectPool.Leak leak = (EffectPool.Leak) reference;
+            if (poolLeaks.remove(leak)) onError("A pooled " + leak.getEffectClass() + " was never returned to the pool", leak.getAcquiredAt());
+        }
+    }
+
+    /**
+     * Return a finished effect to its pool for reuse.
+     *
+     * Effects do this themselves when they are done, this only needs to be called for effects that are
+     * created from this manager but never started. Does nothing unless pooling is enabled and the effect came from this manager.
+     *
+     * @return true if the effect was taken back from its user, false if it is not pooled or was started again
+     */
+    public boolean releaseEffect(Effect effect) {
+        if (!effectPooling) return false;
+
+        EffectPool pool;
+        synchronized (this) {
+            if (disposed || !pooledEffects.containsKey(effect)) return false;
+            // Restarted, still in use
+            if (effects != null && effects.containsKey(effect)) return false;
+
+            EffectPool.Leak leak = pooledEffects.remove(effect);
+            if (leak != null) {
+                leak.clear();
+                poolLeaks.remove(leak);
+            }
+
+            pool = effectPools.get(effect.getClass());
+            if (pool == null) {
+                pool = new EffectPool(this, effect.getClass());
+                effectPools.put(effect.getClass(), pool);
+                if (!pool.isPoolable()) onError("Effect class " + effect.getClass().getSimpleName() + " can not be pooled, " + pool.getUnpoolableReason());
+            }
+        }
+
+        effect.onRelease();
+        if (!pool.isPoolable()) return true;
+
+        try {
+            pool.reset(effect);
+        } catch (Exception ex) {
+            onError("Could not reset pooled effect " + effect.getClass().getSimpleName(), ex);
+            return true;
+        }
+
+        synchronized (this) {
+            if (effectPooling && !disposed) pool.offer(effect, effectPoolSize);
+        }
+        return true;
+    }
+
+    /**
+     * If enabled, effects created by this manager are returned to a per-class pool when done
+     * and reused by later starts, instead of being left for the garbage collector.
+     *
+     * Only enable this if the effects returned from start are not kept after they are done,
+     * since the same instance will be handed out again. In debug mode, pooled effects that are never
+     * returned and pooled effects that are started again after being returned are reported.
+     */
+    public void enableEffectPooling(boolean enable) {
+        synchronized (this) {
+            effectPooling = enable;
+            if (!enable) {
+                effectPools.clear();
+                pooledEffects.clear();
+                poolLeaks.clear();
+            }
+        }
+    }
+
+    public boolean isEffectPoolingEnabled() {
+        return effectPooling;
+    }
+
+    /**
+     * Set the maximum number of idle effects kept per effect class, 32 by default.
+     */
+    public void setEffectPoolSize(int size) {
+        effectPoolSize = Math.max(0, size);
+    }
+
+    public int getEffectPoolSize() {
+        return effectPoolSize;
+    }
+
+    /**
+     * @return the number of idle effects currently pooled, across all classes
+     */
+    public int getPooledEffectCount() {
+        synchronized (this) {
+            int count = 0;
+            for (EffectPool pool : effectPools.values()) {
+                count += pool.size();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Look up an Effect class by name, see {@link #getEffectByClassName(String)}.
+     *
+     * @return the class, or null if it could not be loaded
+     */
+    public Class<? extends Effect> getEffectClass(String effectClass) {
         Class<? extends Effect> effectLibClass;
         try {
             // First check the name as given
@@ -168,22 +380,124 @@ public class EffectManager implements Disposable {
             return null;
         }
 
-        Effect effect = null;
+        return effectLibClass;
+    }
+
+    /**
+     * Compile an effect configuration into a reusable template.
+     *
+     * All values are parsed once here, starting the returned spec does not read the configuration
+     * again except for "$" parameters. The given parameters are copied and not modified.
+     *
+     * @param effectClass The name of the Effect class, see {@link #getEffectByClassName(String)}
+     * @param parameters The effect parameters
+     * @return the compiled spec, or null if the effect class could not be loaded
+     */
+    public EffectSpec compile(String effectClass, ConfigurationSection parameters) {
+        return compile(effectClass, parameters, "Unknown");
+    }
+
+    public EffectSpec compile(String effectClass, ConfigurationSection parameters, String logContext) {
+        Class<? extends Effect> effectLibClass = getEffectClass(effectClass);
+        if (effectLibClass == null) return null;
+
+        EffectBinder binder = EffectBinders.getBinder(effectLibClass);
+        Constructor<? extends Effect> constructor = null;
+        Effect prototype;
         try {
-            Constructor<? extends Effect> constructor = effectLibClass.getConstructor(EffectManager.class);
-            effect = (Effect) constructor.newInstance(this);
+            if (binder != null) {
+                prototype = binder.create(this);
+            } else {
+                constructor = effectLibClass.getConstructor(EffectManager.class);
+                prototype = constructor.newInstance(this);
+            }
         } catch (Exception ex) {
             onError("Error loading EffectLib class: " + effectClass, ex);
+            return null;
         }
 
-        return effect;
+        ConfigurationSection section = new MemoryConfiguration();
+        if (parameters != null) {
+            for (String key : parameters.getKeys(false)) {
+                section.set(key, parameters.get(key));
+            }
+        }
+        applyShortcuts(section);
+
+        List<EffectSpec.Binding> bindings = new ArrayList<>();
+        Map<String, Integer> parameterSlots = new HashMap<>();
+        for (String key : section.getKeys(false)) {
+            if (key.equals("class")) continue;
+
+            String stringValue = section.getString(key);
+            String fieldName = getFieldName(key);
+            Field field = null;
+            Class<?> fieldType = null;
+            try {
+                if (stringValue != null && binder != null) {
+                    fieldType = binder.getFieldType(fieldName);
+                } else if (stringValue != null) {
+                    field = effectLibClass.getField(fieldName);
+                    fieldType = field.getType();
+                }
+            } catch (Exception ex) {
+                fieldType = null;
+            }
+
+            if (fieldType == null) {
+                // Let setField log the problem the same way starting the effect would
+                setField(prototype, key, section, null, logContext);
+                continue;
+            }
+
+            // These have to be resolved each time the effect starts
+            if (stringValue.startsWith("$") && EffectSpec.Binding.isParameterType(fieldType)) {
+                bindings.add(EffectSpec.Binding.slot(fieldName, field, fieldType, key, EffectSpec.getSlot(parameterSlots, stringValue), stringValue));
+                continue;
+            }
+            if (fieldType.equals(Color.class) && stringValue.equalsIgnoreCase("random")) {
+                bindings.add(EffectSpec.Binding.randomColor(fieldName, field, key));
+                continue;
+            }
+
+            if (!setField(prototype, key, section, null, logContext)) continue;
+
+            try {
+                Object value = getFieldValue(prototype, binder, field, fieldName);
+                if (value instanceof ConfigurationSection) bindings.add(EffectSpec.Binding.section(fieldName, field, key, (ConfigurationSection) value, parameterSlots));
+                else bindings.add(EffectSpec.Binding.of(fieldName, field, key, value));
+            } catch (Exception ex) {
+                onError("Error assigning EffectLib property: '" + key + "' of class: '" + effectLibClass.getSimpleName() + "' in: '" + logContext + "': " + ex.getMessage(), ex);
+            }
+        }
+
+        return new EffectSpec(this, effectClass, effectLibClass, binder, constructor, bindings, parameterSlots, logContext);
     }
 
     public void start(Effect effect) {
+        startEffect(effect);
+    }
+
+    /**
+     * @return the effect, the running effect it was merged into, or null if it was rejected as a duplicate
+     */
+    Effect startEffect(Effect effect) {
         if (disposed) throw new IllegalStateException("EffectManager is disposed and not able to accept any effects.");
         if (disposeOnTermination) throw new IllegalStateException("EffectManager is awaiting termination to dispose and not able to accept any effects.");
         if (effects.containsKey(effect)) effect.cancel(false);
-        if (!owningPlugin.isEnabled()) return;
+        if (!owningPlugin.isEnabled()) return effect;
+        if (debug && effectPooling) checkReleased(effect);
+        if (duplicatePolicy != DuplicatePolicy.ALLOW) {
+            Effect kept = checkDuplicate(effect);
+            if (kept != effect) return kept;
+        }
+
+        int stagger = 0;
+        if (staggering && effect.getType() == EffectType.REPEATING) {
+            synchronized (this) {
+                stagger = addStagger(effect, effect.getDelay());
+            }
+        }
 
         BukkitScheduler s = Bukkit.getScheduler();
         BukkitTask task = null;
@@ -197,13 +511,325 @@ public class EffectManager implements Disposable {
                 else task = s.runTaskLater(owningPlugin, effect, effect.getDelay());
                 break;
             case REPEATING:
-                if (effect.isAsynchronous()) task = s.runTaskTimerAsynchronously(owningPlugin, effect, effect.getDelay(), effect.getPeriod());
-                else task = s.runTaskTimer(owningPlugin, effect, effect.getDelay(), effect.getPeriod());
+                if (effect.isAsynchronous()) task = s.runTaskTimerAsynchronously(owningPlugin, effect, effect.getDelay() + stagger, effect.getPeriod());
+                else task = s.runTaskTimer(owningPlugin, effect, effect.getDelay() + stagger, effect.getPeriod());
                 break;
         }
         synchronized (this) {
             effect.setStartTime(System.currentTimeMillis());
             effects.put(effect, task);
+            addToIndexes(effect);
+        }
+        return effect;
+    }
+
+    /**
+     * Start many effects at once, such as for an area spell or a world event.
+     * All effects are registered under one lock, and run from one scheduler task for synchronous and one for
+     * asynchronous effects, rather than one task each.
+     *
+     * @return the started effects in request order, leaving out requests that could not be created
+     */
+    public List<Effect> startAll(List<EffectRequest> requests) {
+        return startAll(requests, 0);
+    }
+
+    /**
+     * @param stagger spread the first runs of the effects over up to this many extra ticks, so they don't all run on
+     *                the same tick. Repeating effects are spread over no more than their period.
+     *                Ignored if automatic staggering is enabled, see {@link #enableStaggering(boolean)}.
+     * @see #startAll(List)
+     */
+    public List<Effect> startAll(List<EffectRequest> requests, int stagger) {
+        if (disposed) throw new IllegalStateException("EffectManager is disposed and not able to accept any effects.");
+        if (disposeOnTermination) throw new IllegalStateException("EffectManager is awaiting termination to dispose and not able to accept any effects.");
+
+        List<Effect> started = new ArrayList<>(requests.size());
+        if (!owningPlugin.isEnabled()) return started;
+
+        // Create and configure everything before taking the lock
+        for (EffectRequest request : requests) {
+            Effect effect = request.createEffect(this);
+            if (effect == null) continue;
+            effect.prepare();
+            if (duplicatePolicy != DuplicatePolicy.ALLOW && checkDuplicate(effect) != effect) continue;
+            started.add(effect);
+        }
+        if (started.isEmpty()) return started;
+
+        BukkitScheduler s = Bukkit.getScheduler();
+        EffectBatch batch = new EffectBatch(owningPlugin, false);
+        EffectBatch asyncBatch = new EffectBatch(owningPlugin, true);
+        synchronized (this) {
+            long startTime = System.currentTimeMillis();
+            for (int i = 0; i < started.size(); i++) {
+                Effect effect = started.get(i);
+                if (effects.containsKey(effect)) effect.cancel(false);
+                if (debug && effectPooling) checkReleased(effect);
+
+                int phase = 0;
+                if (staggering) {
+                    if (effect.getType() == EffectType.REPEATING) phase = addStagger(effect, effect.getDelay());
+                } else if (stagger > 0) {
+                    int spread = stagger + 1;
+                    if (effect.getType() == EffectType.REPEATING) spread = Math.min(spread, effect.getPeriod());
+                    phase = i % spread;
+                }
+
+                effect.setStartTime(startTime);
+                effects.put(effect, (effect.isAsynchronous() ? asyncBatch : batch).add(effect, phase));
+                addToIndexes(effect);
+                effect.setPlaying();
+            }
+
+            if (!batch.isEmpty()) batch.setTask(s.runTaskTimer(owningPlugin, batch, 0, 1));
+            if (!asyncBatch.isEmpty()) asyncBatch.setTask(s.runTaskTimerAsynchronously(owningPlugin, asyncBatch, 0, 1));
+        }
+        return started;
+    }
+
+    /**
+     * @return true if the effect is registered as started, and not yet removed after finishing
+     */
+    synchronized boolean isStarted(Effect effect) {
+        return effects != null && effects.containsKey(effect);
+    }
+
+    /**
+     * Schedule a running repeating effect again, after its period or asynchronous flag changed.
+     */
+    void reschedule(Effect effect) {
+        if (effect.getType() != EffectType.REPEATING || disposed || !owningPlugin.isEnabled()) return;
+
+        BukkitScheduler s = Bukkit.getScheduler();
+        synchronized (this) {
+            BukkitTask task = effects.get(effect);
+            if (task == null) return;
+            task.cancel();
+            int delay = effect.getPeriod();
+            if (staggering) delay += addStagger(effect, delay);
+            if (effect.isAsynchronous()) task = s.runTaskTimerAsynchronously(owningPlugin, effect, delay, effect.getPeriod());
+            else task = s.runTaskTimer(owningPlugin, effect, delay, effect.getPeriod());
+            effects.put(effect, task);
+        }
+    }
+
+    /**
+     * Register a spec under a name, or replace the spec already registered under it.
+     * Infinite effects started from the registration switch to the new spec at their next iteration.
+     *
+     * @return the registration, which stays the same when its spec is replaced
+     */
+    public EffectRegistration register(String name, EffectSpec spec) {
+        if (spec == null) throw new IllegalArgumentException("EffectSpec cannot be null");
+
+        EffectRegistration registration = registrations.get(name);
+        if (registration == null) {
+            EffectRegistration newRegistration = new EffectRegistration(name, spec);
+            registration = registrations.putIfAbsent(name, newRegistration);
+            if (registration == null) return newRegistration;
+        }
+        registration.setSpec(spec);
+        return registration;
+    }
+
+    /**
+     * Register or replace a set of specs, such as those returned by {@link EffectSpecCache#load(File)} after a reload.
+     */
+    public void registerAll(Map<String, EffectSpec> specs) {
+        for (Map.Entry<String, EffectSpec> entry : specs.entrySet()) {
+            register(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Remove a registration. Effects started from it keep running with its last spec.
+     *
+     * @return the removed registration, or null
+     */
+    public EffectRegistration unregister(String name) {
+        return registrations.remove(name);
+    }
+
+    public EffectRegistration getRegistration(String name) {
+        return registrations.get(name);
+    }
+
+    public Collection<EffectRegistration> getRegistrations() {
+        return registrations.values();
+    }
+
+    /**
+     * Start an effect from a registered spec.
+     *
+     * @param parameters values for "$" parameters by slot of the registered spec, may be null
+     * @return the effect, or null if nothing is registered under this name
+     */
+    public Effect startRegistered(String name, DynamicLocation origin, DynamicLocation target, Object[] parameters, Player targetPlayer) {
+        EffectRegistration registration = registrations.get(name);
+        if (registration == null) {
+            onError("No effect registered as: " + name);
+            return null;
+        }
+        return registration.start(origin, target, parameters, targetPlayer);
+    }
+
+    /**
+     * If enabled, each repeating effect is started with a short extra delay that puts it on the least loaded ticks
+     * within its period, so effects started together don't keep running on the same ticks.
+     *
+     * The load of an effect is the average number of particles its class displays per run, measured while
+     * this is enabled, or the average time a run takes, see {@link #setStaggerByTime(boolean)}.
+     */
+    public void enableStaggering(boolean enable) {
+        synchronized (this) {
+            if (staggering == enable || disposed) return;
+            staggering = enable;
+            if (enable) {
+                tickTask = Bukkit.getScheduler().runTaskTimer(owningPlugin, new Runnable() {
+                    @Override
+                    public void run() {
+                        currentTick++;
+                    }
+                }, 1, 1);
+                return;
+            }
+
+            if (tickTask != null) tickTask.cancel();
+            tickTask = null;
+            Arrays.fill(staggerLoad, 0);
+            for (Effect effect : effects.keySet()) {
+                effect.staggerPeriod = 0;
+            }
+        }
+    }
+
+    public boolean isStaggeringEnabled() {
+        return staggering;
+    }
+
+    /**
+     * Measure load by the time each effect class takes per run, rather than the particles it displays.
+     */
+    public void setStaggerByTime(boolean byTime) {
+        staggerByTime = byTime;
+    }
+
+    public boolean isStaggerByTime() {
+        return staggerByTime;
+    }
+
+    /**
+     * Set the most ticks a repeating effect may be delayed to stagger it, 10 by default.
+     * Effects are never delayed by a full period or more.
+     */
+    public void setMaxStaggerDelay(int ticks) {
+        maxStaggerDelay = Math.max(0, ticks);
+    }
+
+    public int getMaxStaggerDelay() {
+        return maxStaggerDelay;
+    }
+
+    /**
+     * @return the expected load of the staggered effects on each of the next 60 ticks, starting with the current tick
+     */
+    public double[] getStaggerLoad() {
+        synchronized (this) {
+            double[] load = new double[STAGGER_SLOTS];
+            for (int i = 0; i < STAGGER_SLOTS; i++) {
+                load[i] = staggerLoad[(int) ((currentTick + i) % STAGGER_SLOTS)];
+            }
+            return load;
+        }
+    }
+
+    /**
+     * @return the cost tracker of an effect class, or null if effects are not being staggered
+     */
+    EffectCost getEffectCost(Class<? extends Effect> effectClass) {
+        if (!staggering) return null;
+
+        EffectCost cost = effectCosts.get(effectClass);
+        if (cost == null) {
+            EffectCost newCost = new EffectCost();
+            cost = effectCosts.putIfAbsent(effectClass, newCost);
+            if (cost == null) cost = newCost;
+        }
+        return cost;
+    }
+
+    private double getStaggerWeight(Class<? extends Effect> effectClass) {
+        EffectCost cost = effectCosts.get(effectClass);
+        if (cost != null && cost.isSampled()) return staggerByTime ? cost.getNanos() : cost.getParticles();
+
+        // Until a class has run, assume it costs as much as the average of the others
+        double total = 0;
+        int count = 0;
+        for (EffectCost other : effectCosts.values()) {
+            if (!other.isSampled()) continue;
+            total += staggerByTime ? other.getNanos() : other.getParticles();
+            count++;
+        }
+        return count == 0 ? 1 : total / count;
+    }
+
+    /**
+     * Pick the extra delay that puts a repeating effect on the least loaded ticks, and add its load there.
+     * Must be called while holding the lock.
+     *
+     * @return the extra delay in ticks
+     */
+    /**
+     * @param delay the ticks until the effect would first run without staggering
+     * @return the extra ticks to wait before the first run
+     */
+    private int addStagger(Effect effect, int delay) {
+        removeStagger(effect);
+        int period = effect.getPeriod();
+        if (period <= 1) return 0;
+
+        long firstTick = currentTick + Math.max(1, delay);
+        int maxDelay = Math.min(period - 1, maxStaggerDelay);
+        int bestDelay = 0;
+        double bestLoad = Double.MAX_VALUE;
+        for (int extra = 0; extra <= maxDelay; extra++) {
+            // The busiest tick this effect would run on, in the case of periods that don't divide the slots this is an estimate
+            int slot = (int) ((firstTick + extra) % STAGGER_SLOTS);
+            double load = 0;
+            for (int offset = 0; offset < STAGGER_SLOTS; offset += period) {
+                load = Math.max(load, staggerLoad[(slot + offset) % STAGGER_SLOTS]);
+            }
+            if (load < bestLoad) {
+                bestLoad = load;
+                bestDelay = extra;
+            }
+        }
+
+        effect.staggerSlot = (int) ((firstTick + bestDelay) % STAGGER_SLOTS);
+        effect.staggerPeriod = period;
+        effect.staggerWeight = getStaggerWeight(effect.getClass());
+        for (int offset = 0; offset < STAGGER_SLOTS; offset += period) {
+            staggerLoad[(effect.staggerSlot + offset) % STAGGER_SLOTS] += effect.staggerWeight;
+        }
+        return bestDelay;
+    }
+
+    private void removeStagger(Effect effect) {
+        if (effect.staggerPeriod <= 0) return;
+        for (int offset = 0; offset < STAGGER_SLOTS; offset += effect.staggerPeriod) {
+            int slot = (effect.staggerSlot + offset) % STAGGER_SLOTS;
+            staggerLoad[slot] = Math.max(0, staggerLoad[slot] - effect.staggerWeight);
+        }
+        effect.staggerPeriod = 0;
+    }
+
+    private void checkReleased(Effect effect) {
+        synchronized (this) {
+            EffectPool pool = effectPools.get(effect.getClass());
+            if (pool != null && pool.contains(effect)) {
+                onError("Starting a " + effect.getClass().getSimpleName() + " that was already returned to the pool", new IllegalStateException("Effect used after release"));
+            }
         }
     }
 
@@ -211,19 +837,7 @@ public class EffectManager implements Disposable {
         Effect effect = getEffectByClassName(effectClass);
         if (effect == null) return null;
 
-        // Some specific shortcuts
-        if (parameters.contains("particle_offset")) {
-            parameters.set("particle_offset_x", parameters.get("particle_offset"));
-            parameters.set("particle_offset_y", parameters.get("particle_offset"));
-            parameters.set("particle_offset_z", parameters.get("particle_offset"));
-            parameters.set("particle_offset", null);
-        }
-        if (parameters.contains("particleOffset")) {
-            parameters.set("particleOffsetX", parameters.get("particleOffset"));
-            parameters.set("particleOffsetY", parameters.get("particleOffset"));
-            parameters.set("particleOffsetZ", parameters.get("particleOffset"));
-            parameters.set("particleOffset", null);
-        }
+        applyShortcuts(parameters);
 
         Collection<String> keys = parameters.getKeys(false);
         for (String key : keys) {
@@ -237,10 +851,28 @@ public class EffectManager implements Disposable {
         effect.setDynamicTarget(target);
 
         if (targetPlayer != null) effect.setTargetPlayer(targetPlayer);
+        effect.identitySource = parameters;
+        effect.identityParameters = parameterMap == null ? null : new Object[] { parameterMap.getValues(true) };
 
         return effect;
     }
 
+    protected void applyShortcuts(ConfigurationSection parameters) {
+        // Some specific shortcuts
+        if (parameters.contains("particle_offset")) {
+            parameters.set("particle_offset_x", parameters.get("particle_offset"));
+            parameters.set("particle_offset_y", parameters.get("particle_offset"));
+            parameters.set("particle_offset_z", parameters.get("particle_offset"));
+            parameters.set("particle_offset", null);
+        }
+        if (parameters.contains("particleOffset")) {
+            parameters.set("particleOffsetX", parameters.get("particleOffset"));
+            parameters.set("particleOffsetY", parameters.get("particleOffset"));
+            parameters.set("particleOffsetZ", parameters.get("particleOffset"));
+            parameters.set("particleOffset", null);
+        }
+    }
+
     @Deprecated
     public Effect start(String effectClass, ConfigurationSection parameters, DynamicLocation origin, DynamicLocation target, Map<String, String> parameterMap, Player targetPlayer) {
         ConfigurationSection configMap = null;
@@ -258,13 +890,12 @@ public class EffectManager implements Disposable {
      * @param target the target location
      * @param parameterMap a configuration of variables from the parameter config to replace
      * @param targetPlayer The player who should see this effect.
-     * @return effect or null
+     * @return effect, the running effect it was merged into as a duplicate, or null
      */
     public Effect start(String effectClass, ConfigurationSection parameters, DynamicLocation origin, DynamicLocation target, ConfigurationSection parameterMap, Player targetPlayer) {
         Effect effect = getEffect(effectClass, parameters, origin, target, parameterMap, targetPlayer);
         if (effect == null) return null;
-        effect.start();
-        return effect;
+        return effect.startOrMerge();
     }
     
     public void cancel(boolean callback) {
@@ -285,12 +916,196 @@ public class EffectManager implements Disposable {
         }
     }
 
+    /**
+     * Index a started effect by its entities and tags. Must be called while holding the lock.
+     */
+    private void addToIndexes(Effect effect) {
+        removeFromIndexes(effect);
+
+        Entity entity = effect.getEntity();
+        Entity targetEntity = effect.getTargetEntity();
+        effect.indexedEntity = entity == null ? null : entity.getUniqueId();
+        effect.indexedTargetEntity = targetEntity == null ? null : targetEntity.getUniqueId();
+        if (effect.indexedEntity != null) addToIndex(effectsByEntity, effect.indexedEntity, effect);
+        if (effect.indexedTargetEntity != null) addToIndex(effectsByEntity, effect.indexedTargetEntity, effect);
+
+        Set<String> tags = effect.getTags();
+        if (tags.isEmpty()) return;
+        effect.indexedTags = tags.toArray(new String[0]);
+        for (String tag : effect.indexedTags) {
+            addToIndex(effectsByTag, tag, effect);
+        }
+    }
+
+    private void removeFromIndexes(Effect effect) {
+        if (effect.indexedEntity != null) removeFromIndex(effectsByEntity, effect.indexedEntity, effect);
+        if (effect.indexedTargetEntity != null) removeFromIndex(effectsByEntity, effect.indexedTargetEntity, effect);
+        if (effect.indexedTags != null) {
+            for (String tag : effect.indexedTags) {
+                removeFromIndex(effectsByTag, tag, effect);
+            }
+        }
+        effect.indexedEntity = null;
+        effect.indexedTargetEntity = null;
+        effect.indexedTags = null;
+    }
+
+    private static <K> void addToIndex(Map<K, Set<Effect>> index, K key, Effect effect) {
+        Set<Effect> indexed = index.get(key);
+        if (indexed == null) {
+            indexed = new HashSet<>();
+            index.put(key, indexed);
+        }
+        indexed.add(effect);
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<Effect>> index, K key, Effect effect) {
+        Set<Effect> indexed = index.get(key);
+        if (indexed == null) return;
+        indexed.remove(effect);
+        if (indexed.isEmpty()) index.remove(key);
+    }
+
+    /**
+     * @return running effects that have this entity as their origin or target entity, when they were started
+     */
+    public List<Effect> getEffectsByEntity(UUID entityId) {
+        synchronized (this) {
+            Set<Effect> indexed = effectsByEntity.get(entityId);
+            return indexed == null ? new ArrayList<Effect>() : new ArrayList<>(indexed);
+        }
+    }
+
+    /**
+     * @return running effects with this tag, see {@link Effect#addTag(String)}
+     */
+    public List<Effect> getEffectsByTag(String tag) {
+        synchronized (this) {
+            Set<Effect> indexed = effectsByTag.get(tag);
+            return indexed == null ? new ArrayList<Effect>() : new ArrayList<>(indexed);
+        }
+    }
+
+    /**
+     * Cancel all effects that have this entity as their origin or target entity, such as when a player quits.
+     *
+     * @return the number of effects cancelled
+     */
+    public int cancelByEntity(UUID entityId) {
+        return cancelByEntity(entityId, true);
+    }
+
+    public int cancelByEntity(UUID entityId, boolean callback) {
+        return cancelAll(getEffectsByEntity(entityId), callback);
+    }
+
+    /**
+     * Cancel all effects with this tag.
+     *
+     * @return the number of effects cancelled
+     */
+    public int cancelByTag(String tag) {
+        return cancelByTag(tag, true);
+    }
+
+    public int cancelByTag(String tag, boolean callback) {
+        return cancelAll(getEffectsByTag(tag), callback);
+    }
+
+    /**
+     * Cancel a snapshot of effects outside the lock, as callbacks may start or cancel other effects.
+     */
+    private int cancelAll(List<Effect> toCancel, boolean callback) {
+        for (Effect effect : toCancel) {
+            effect.cancel(callback);
+        }
+        return toCancel.size();
+    }
+
     public void removeEffect(Effect effect) {
         synchronized (this) {
             if (effects == null) return;
             BukkitTask existingTask = effects.get(effect);
             if (existingTask != null) existingTask.cancel();
             effects.remove(effect);
+            removeStagger(effect);
+            removeFromIndexes(effect);
+            if (effect.dormant) {
+                effect.dormant = false;
+                dormantEffects--;
+            }
+            if (effect.identity != null) {
+                if (effectsByIdentity.get(effect.identity) == effect) effectsByIdentity.remove(effect.identity);
+                effect.identity = null;
+            }
+        }
+    }
+
+    /**
+     * Check a repeating effect about to start against the running ones, and claim its identity if it is not a duplicate.
+     * A duplicate is merged into the running effect or rejected, marked done without running its callback and
+     * released to the pool, so it must not be handed back to the caller.
+     *
+     * @return the effect if it should be started, the running effect it was merged into, or null if it was rejected
+     */
+    private Effect checkDuplicate(Effect effect) {
+        if (effect.getType() != EffectType.REPEATING) return effect;
+        EffectIdentity identity = EffectIdentity.of(effect);
+        if (identity == null) return effect;
+
+        Effect kept;
+
+        synchronized (this) {
+            Effect running = effectsByIdentity.get(identity);
+            if (running == null || running == effect || running.isDone()) {
+                effectsByIdentity.put(identity, effect);
+                effect.identity = identity;
+                return effect;
+            }
+
+            if (duplicatePolicy == DuplicatePolicy.MERGE) {
+                // Last as long as the new effect would have, from now
+                running.mergeIterations(effect.iterations);
+                mergedDuplicates++;
+                kept = running;
+            } else {
+                rejectedDuplicates++;
+                kept = null;
+            }
+        }
+
+        effect.cancel(false);
+        releaseEffect(effect);
+        return kept;
+    }
+
+    /**
+     * Find duplicates of effects that are started while an identical effect is running, and merge or reject them.
+     * Only repeating effects created from a spec, registration or configuration are checked.
+     */
+    public void setDuplicatePolicy(DuplicatePolicy duplicatePolicy) {
+        this.duplicatePolicy = duplicatePolicy == null ? DuplicatePolicy.ALLOW : duplicatePolicy;
+    }
+
+    public DuplicatePolicy getDuplicatePolicy() {
+        return duplicatePolicy;
+    }
+
+    /**
+     * @return the number of duplicate effects merged into running ones
+     */
+    public long getMergedDuplicates() {
+        synchronized (this) {
+            return mergedDuplicates;
+        }
+    }
+
+    /**
+     * @return the number of duplicate effects not started
+     */
+    public long getRejectedDuplicates() {
+        synchronized (this) {
+            return rejectedDuplicates;
         }
     }
 
@@ -304,6 +1119,18 @@ public class EffectManager implements Disposable {
             owningPlugin = null;
             logger = null;
             display = null;
+            if (tickTask != null) tickTask.cancel();
+            tickTask = null;
+            if (entityLocationCache != null) entityLocationCache.dispose();
+            entityLocationCache = null;
+            effectPools.clear();
+            pooledEffects.clear();
+            poolLeaks.clear();
+            registrations.clear();
+            effectsByEntity.clear();
+            effectsByTag.clear();
+            dormantEffects = 0;
+            effectsByIdentity.clear();
             imageCache = null;
             imageCacheFolder = null;
             effectManagers.remove(this);
@@ -337,6 +1164,132 @@ public class EffectManager implements Disposable {
         return debug;
     }
 
+    /**
+     * If enabled (the default), effects bound to the same entity share one location lookup per tick.
+     */
+    public void enableEntitySnapshots(boolean enable) {
+        entitySnapshots = enable;
+    }
+
+    public boolean isEntitySnapshotsEnabled() {
+        return entitySnapshots;
+    }
+
+    /**
+     * If enabled, repeating effects no player can see stop running until a player comes close enough again.
+     * Their iterations are still counted, and they are told how many were skipped so they can resume in phase.
+     *
+     * @see Effect#skipIterations(int)
+     */
+    public void enableDormancy(boolean enable) {
+        dormancy = enable;
+    }
+
+    public boolean isDormancyEnabled() {
+        return dormancy;
+    }
+
+    /**
+     * @param interval how many ticks an effect waits before looking for viewers again
+     */
+    public void setDormancyCheckInterval(int interval) {
+        dormancyCheckInterval = Math.max(1, interval);
+    }
+
+    public int getDormancyCheckInterval() {
+        return dormancyCheckInterval;
+    }
+
+    /**
+     * @param margin how many blocks beyond an effect's visible range a player can be and still keep it running,
+     *               since particles are displayed around the origin rather than at it
+     */
+    public void setDormancyMargin(double margin) {
+        dormancyMargin = Math.max(0, margin);
+    }
+
+    public double getDormancyMargin() {
+        return dormancyMargin;
+    }
+
+    /**
+     * @return the number of running effects that are dormant because no player can see them
+     */
+    public int getDormantCount() {
+        synchronized (this) {
+            return dormantEffects;
+        }
+    }
+
+    /**
+     * @return the number of running effects that are not dormant
+     */
+    public int getActiveCount() {
+        synchronized (this) {
+            return effects == null ? 0 : effects.size() - dormantEffects;
+        }
+    }
+
+    void setDormant(Effect effect, boolean dormant) {
+        synchronized (this) {
+            if (effect.dormant == dormant || effects == null || !effects.containsKey(effect)) return;
+            effect.dormant = dormant;
+            dormantEffects += dormant ? 1 : -1;
+        }
+    }
+
+    /**
+     * Check whether any player is close enough to an effect's origin or target to see it.
+     */
+    boolean hasViewers(Effect effect) {
+        List<Player> targetPlayers = effect.getTargetPlayers();
+        Player targetPlayer = effect.getTargetPlayer();
+        if (targetPlayers != null || targetPlayer != null) {
+            if (targetPlayer != null && targetPlayer.isOnline()) return true;
+            if (targetPlayers == null) return false;
+            for (Player player : targetPlayers) {
+                if (player.isOnline()) return true;
+            }
+            return false;
+        }
+
+        Location location = effect.getLocation();
+        Location target = effect.getTarget();
+        if (location == null) return true;
+        double range = effect.getVisibleRange() + dormancyMargin;
+        double squared = range * range;
+        List<DynamicLocation> anchors = effect.getAnchors();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (isPlayerIgnored(player)) continue;
+            Location playerLocation = player.getLocation();
+            if (!anchors.isEmpty()) {
+                // An instanced effect is only shown at its anchors
+                for (DynamicLocation anchor : anchors) {
+                    Location anchorLocation = anchor == null ? null : anchor.getLocation();
+                    if (anchorLocation != null && playerLocation.getWorld() == anchorLocation.getWorld() && playerLocation.distanceSquared(anchorLocation) <= squared) return true;
+                }
+                continue;
+            }
+            if (playerLocation.getWorld() == location.getWorld() && playerLocation.distanceSquared(location) <= squared) return true;
+            if (target != null && playerLocation.getWorld() == target.getWorld() && playerLocation.distanceSquared(target) <= squared) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get the per-tick entity location cache, or null if entity snapshots are disabled.
+     */
+    public EntityLocationCache getEntityLocationCache() {
+        if (!entitySnapshots || disposed) return null;
+        EntityLocationCache cache = entityLocationCache;
+        if (cache != null) return cache;
+
+        synchronized (this) {
+            if (entityLocationCache == null && owningPlugin != null) entityLocationCache = new EntityLocationCache(owningPlugin);
+            return entityLocationCache;
+        }
+    }
+
     public void onError(Throwable ex) {
         getLogger().log(Level.SEVERE, "Unexpected EffectLib Error: " + ex.getMessage(), ex);
     }
@@ -367,6 +1320,41 @@ public class EffectManager implements Disposable {
         visibleRange = range;
     }
 
+    /**
+     * Send fewer particles to players far away from them, or null to send them all.
+     *
+     * @see DistanceThinning#defaults()
+     */
+    public void setDistanceThinning(DistanceThinning distanceThinning) {
+        this.distanceThinning = distanceThinning;
+    }
+
+    public DistanceThinning getDistanceThinning() {
+        return distanceThinning;
+    }
+
+    /**
+     * Skip sending short-lived particles to players looking away from them, or null to send them all.
+     */
+    public void setViewCulling(ViewCulling viewCulling) {
+        this.viewCulling = viewCulling;
+    }
+
+    public ViewCulling getViewCulling() {
+        return viewCulling;
+    }
+
+    /**
+     * Combine particles an effect displays close together in one iteration into fewer calls, or null to send each one.
+     */
+    public void setParticleClustering(ParticleClustering particleClustering) {
+        this.particleClustering = particleClustering;
+    }
+
+    public ParticleClustering getParticleClustering() {
+        return particleClustering;
+    }
+
     public Plugin getOwningPlugin() {
         return owningPlugin;
     }
@@ -385,10 +1373,7 @@ public class EffectManager implements Disposable {
                 return false;
             }
 
-            // Allow underscore_style and dash_style parameters
-            if (key.contains("-")) key = key.replace("-", "_");
-
-            if (key.contains("_")) key = CaseFormat.LOWER_UNDERSCORE.to(CaseFormat.LOWER_CAMEL, key);
+            key = getFieldName(key);
 
             ConfigurationSection fieldSection = section;
             if (parameterMap != null && stringValue.startsWith("$") && parameterMap.contains(stringValue)) {
@@ -396,54 +1381,45 @@ public class EffectManager implements Disposable {
                 fieldSection = parameterMap;
             }
 
-            Field field = effect.getClass().getField(key);
+            EffectBinder binder = EffectBinders.getBinder(effect.getClass());
+            Field field = binder == null ? effect.getClass().getField(key) : null;
+            Class<?> fieldType = binder == null ? field.getType() : binder.getFieldType(key);
+            if (fieldType == null) throw new NoSuchFieldException(key);
 
-            if (field.getType().equals(Integer.TYPE) || field.getType().equals(Integer.class)) {
+            if (fieldType.equals(Integer.TYPE) || fieldType.equals(Integer.class)) {
                 int intValue = Integer.MAX_VALUE;
                 if (!ConfigUtils.isMaxValue(stringValue)) intValue = fieldSection.getInt(fieldKey);
-                field.set(effect, intValue);
-            } else if (field.getType().equals(Float.TYPE) || field.getType().equals(Float.class)) {
+                setFieldValue(effect, binder, field, key, intValue);
+            } else if (fieldType.equals(Float.TYPE) || fieldType.equals(Float.class)) {
                 float floatValue = Float.MAX_VALUE;
                 if (!ConfigUtils.isMaxValue(stringValue)) floatValue = (float) fieldSection.getDouble(fieldKey);
-                field.set(effect,floatValue);
-            } else if (field.getType().equals(Double.TYPE) || field.getType().equals(Double.class)) {
+                setFieldValue(effect, binder, field, key, floatValue);
+            } else if (fieldType.equals(Double.TYPE) || fieldType.equals(Double.class)) {
                 double doubleValue = Double.MAX_VALUE;
                 if (!ConfigUtils.isMaxValue(stringValue)) doubleValue = fieldSection.getDouble(fieldKey);
-                field.set(effect, doubleValue);
-            } else if (field.getType().equals(Boolean.TYPE) || field.getType().equals(Boolean.class)) {
-                field.set(effect, fieldSection.getBoolean(fieldKey));
-            } else if (field.getType().equals(Long.TYPE) || field.getType().equals(Long.class)) {
+                setFieldValue(effect, binder, field, key, doubleValue);
+            } else if (fieldType.equals(Boolean.TYPE) || fieldType.equals(Boolean.class)) {
+                setFieldValue(effect, binder, field, key, fieldSection.getBoolean(fieldKey));
+            } else if (fieldType.equals(Long.TYPE) || fieldType.equals(Long.class)) {
                 long longValue = Long.MAX_VALUE;
                 if (!ConfigUtils.isMaxValue(stringValue)) longValue = fieldSection.getLong(fieldKey);
-                field.set(effect, longValue);
-            } else if (field.getType().equals(Short.TYPE) || field.getType().equals(Short.class)) {
+                setFieldValue(effect, binder, field, key, longValue);
+            } else if (fieldType.equals(Short.TYPE) || fieldType.equals(Short.class)) {
                 short shortValue = Short.MAX_VALUE;
                 if (!ConfigUtils.isMaxValue(stringValue)) shortValue = (short) fieldSection.getInt(fieldKey);
-                field.set(effect, shortValue);
-            } else if (field.getType().equals(Byte.TYPE) || field.getType().equals(Byte.class)) {
+                setFieldValue(effect, binder, field, key, shortValue);
+            } else if (fieldType.equals(Byte.TYPE) || fieldType.equals(Byte.class)) {
                 byte byteValue = Byte.MAX_VALUE;
                 if (!ConfigUtils.isMaxValue(stringValue)) byteValue = (byte) fieldSection.getInt(fieldKey);
-                field.set(effect, byteValue);
-            } else if (field.getType().equals(String.class)) {
+                setFieldValue(effect, binder, field, key, byteValue);
+            } else if (fieldType.equals(String.class)) {
                 String value = fieldSection.getString(fieldKey);
-                field.set(effect, value);
-            } else if (field.getType().equals(Color.class)) {
+                setFieldValue(effect, binder, field, key, value);
+            } else if (fieldType.equals(Color.class)) {
                 String value = fieldSection.getString(fieldKey);
-                if (value != null) {
-                    int rgb;
-                    if (value.equalsIgnoreCase("random")) {
-                        byte red = (byte) (Math.random() * 255);
-                        byte green = (byte) (Math.random() * 255);
-                        byte blue = (byte) (Math.random() * 255);
-                        rgb = (red << 16) | (green << 8) | blue;
-                    } else {
-                        if (value.startsWith("#")) value = value.substring(1);
-                        rgb = Integer.parseInt(value, 16);
-                    }
-                    field.set(effect, Color.fromRGB(rgb));
-                }
-            } else if (Map.class.isAssignableFrom(field.getType()) && section.isConfigurationSection(key)) {
-                Map<String, Object> map = (Map<String, Object>) field.get(effect);
+                if (value != null) setFieldValue(effect, binder, field, key, parseColor(value));
+            } else if (Map.class.isAssignableFrom(fieldType) && section.isConfigurationSection(key)) {
+                Map<String, Object> map = (Map<String, Object>) getFieldValue(effect, binder, field, key);
                 ConfigurationSection subSection = section.getConfigurationSection(key);
                 if (subSection != null) {
                     Set<String> keys = subSection.getKeys(false);
@@ -451,9 +1427,9 @@ public class EffectManager implements Disposable {
                         map.put(mapKey, subSection.get(mapKey));
                     }
                 }
-            } else if (Map.class.isAssignableFrom(field.getType()) && Map.class.isAssignableFrom(section.get(key).getClass())) {
-                field.set(effect, section.get(key));
-            } else if (ConfigurationSection.class.isAssignableFrom(field.getType())) {
+            } else if (Map.class.isAssignableFrom(fieldType) && Map.class.isAssignableFrom(section.get(key).getClass())) {
+                setFieldValue(effect, binder, field, key, section.get(key));
+            } else if (ConfigurationSection.class.isAssignableFrom(fieldType)) {
                 ConfigurationSection configSection = ConfigUtils.getConfigurationSection(section, key);
                 if (parameterMap != null) {
                     ConfigurationSection baseConfiguration = configSection;
@@ -472,39 +1448,27 @@ public class EffectManager implements Disposable {
                         }
                     }
                 }
-                field.set(effect, configSection);
-            } else if (field.getType().equals(Vector.class)) {
+                setFieldValue(effect, binder, field, key, configSection);
+            } else if (fieldType.equals(Vector.class)) {
                 String value = fieldSection.getString(fieldKey);
-                if (value != null) {
-                    String[] pieces = value.split(",");
-                    double x = pieces.length > 0 ? Double.parseDouble(pieces[0]) : 0;
-                    double y = pieces.length > 1 ? Double.parseDouble(pieces[1]) : 0;
-                    double z = pieces.length > 2 ? Double.parseDouble(pieces[2]) : 0;
-                    field.set(effect, new Vector(x, y, z));
-                }
-            } else if (field.getType().equals(Particle.class)) {
+                if (value != null) setFieldValue(effect, binder, field, key, parseVector(value));
+            } else if (fieldType.equals(Particle.class)) {
                 String value = fieldSection.getString(fieldKey);
-                if (value != null) {
-                    // Legacy conversions
-                    if (!ParticleDisplay.hasColorTransition() && value.equalsIgnoreCase("DUST_COLOR_TRANSITION")) {
-                        value = "REDSTONE";
-                    }
-                    field.set(effect, ParticleUtil.getParticle(value));
-                }
-            } else if (field.getType().isEnum()) {
-                Class<Enum> enumType = (Class<Enum>) field.getType();
+                if (value != null) setFieldValue(effect, binder, field, key, parseParticle(value));
+            } else if (fieldType.isEnum()) {
+                Class<Enum> enumType = (Class<Enum>) fieldType;
                 String value = fieldSection.getString(fieldKey);
                 if (value != null) {
-                    field.set(effect, Enum.valueOf(enumType, value.toUpperCase()));
+                    setFieldValue(effect, binder, field, key, Enum.valueOf(enumType, value.toUpperCase()));
                 }
-            } else if (field.getType().equals(Font.class)) {
+            } else if (fieldType.equals(Font.class)) {
                 // Should caching the fonts be considered?
                 // Or is the performance gain negligible?
                 String value = fieldSection.getString(fieldKey);
-                field.set(effect, Font.decode(value));
-            } else if (field.getType().equals(CustomSound.class)) {
+                setFieldValue(effect, binder, field, key, Font.decode(value));
+            } else if (fieldType.equals(CustomSound.class)) {
                 String value = fieldSection.getString(fieldKey);
-                field.set(effect, new CustomSound(value));
+                setFieldValue(effect, binder, field, key, new CustomSound(value));
             } else {
                 onError("Unable to assign EffectLib property " + key + " of class " + effect.getClass().getSimpleName() + " in " + logContext);
                 return false;
@@ -518,6 +1482,61 @@ public class EffectManager implements Disposable {
         return false;
     }
 
+    static Color parseColor(String value) {
+        int rgb;
+        if (value.equalsIgnoreCase("random")) {
+            byte red = (byte) (Math.random() * 255);
+            byte green = (byte) (Math.random() * 255);
+            byte blue = (byte) (Math.random() * 255);
+            rgb = (red << 16) | (green << 8) | blue;
+        } else {
+            if (value.startsWith("#")) value = value.substring(1);
+            rgb = Integer.parseInt(value, 16);
+        }
+        return Color.fromRGB(rgb);
+    }
+
+    static Vector parseVector(String value) {
+        String[] pieces = value.split(",");
+        double x = pieces.length > 0 ? Double.parseDouble(pieces[0]) : 0;
+        double y = pieces.length > 1 ? Double.parseDouble(pieces[1]) : 0;
+        double z = pieces.length > 2 ? Double.parseDouble(pieces[2]) : 0;
+        return new Vector(x, y, z);
+    }
+
+    static Particle parseParticle(String value) {
+        // Legacy conversions
+        if (!ParticleDisplay.hasColorTransition() && value.equalsIgnoreCase("DUST_COLOR_TRANSITION")) {
+            value = "REDSTONE";
+        }
+        return ParticleUtil.getParticle(value);
+    }
+
+    /**
+     * Assign a field found by {@link #setField}, through the Effect's binder if it has one.
+     */
+    static void setFieldValue(Object effect, EffectBinder binder, Field field, String key, Object value) throws ReflectiveOperationException {
+        if (binder == null) field.set(effect, value);
+        else if (!binder.set((Effect) effect, key, value)) throw new IllegalAccessException("Can not assign field " + key);
+    }
+
+    static Object getFieldValue(Object effect, EffectBinder binder, Field field, String key) throws ReflectiveOperationException {
+        if (binder == null) return field.get(effect);
+        return binder.get((Effect) effect, key);
+    }
+
+    /**
+     * Convert a parameter key to the name of the Effect field it sets.
+     */
+    protected static String getFieldName(String key) {
+        // Allow underscore_style and dash_style parameters
+        if (key.contains("-")) key = key.replace("-", "_");
+
+        if (key.contains("_")) key = CaseFormat.LOWER_UNDERSCORE.to(CaseFormat.LOWER_CAMEL, key);
+
+        return key;
+    }
+
     public static void disposeAll() {
         Iterator<EffectManager> i = effectManagers.iterator();
         while (i.hasNext()) {
@@ -556,6 +1575,52 @@ public class EffectManager implements Disposable {
         }));
     }
 
+    BufferedImage[] getCachedImages(String fileName) {
+        Map<String, BufferedImage[]> cache = imageCache;
+        return cache == null || fileName == null ? null : cache.get(fileName);
+    }
+
+    void putCachedImages(String fileName, BufferedImage[] images) {
+        Map<String, BufferedImage[]> cache = imageCache;
+        if (cache != null && fileName != null) cache.put(fileName, images);
+    }
+
+    /**
+     * Load an image into the cache on the calling thread, so a later {@link #loadImage} finds it right away.
+     */
+    public void preloadImage(final String fileName) {
+        final Map<String, BufferedImage[]> cache = imageCache;
+        if (fileName == null || cache == null || cache.containsKey(fileName)) return;
+
+        new ImageLoadTask(this, fileName, new ImageLoadCallback() {
+            @Override
+            public void loaded(BufferedImage[] images) {
+                cache.put(fileName, images);
+            }
+        }).run();
+    }
+
+    /**
+     * Load everything the given effects need the first time they run on background threads: classes, equations,
+     * images and rendered text. Call this when the plugin enables, so the first cast of each effect does not hitch.
+     *
+     * @param effects EffectSpecs, or ConfigurationSections with a "class" key
+     * @return the running preload, with progress and timing. A summary is logged when it finishes.
+     */
+    public EffectPreloader preload(Collection<?> effects) {
+        return preload(effects, null);
+    }
+
+    /**
+     * @param callback run on the main thread when all effects are preloaded, may be null
+     * @see #preload(Collection)
+     */
+    public EffectPreloader preload(Collection<?> effects, Runnable callback) {
+        EffectPreloader preloader = new EffectPreloader(this, effects, callback);
+        preloader.start(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)));
+        return preloader;
+    }
+
     public void registerEffectClass(String key, Class<? extends Effect> effectClass) {
         effectClasses.put(key, effectClass);
     }
@@ -0,0 +1,247 @@
+package de.slikey.effectlib;
+
+import java.util.Map;
+import java.util.List;
+import java.util.UUID;
+import java.awt.Font;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Constructor;
+import java.lang.ref.WeakReference;
+import java.lang.ref.ReferenceQueue;
+
+import org.bukkit.Color;
+import org.bukkit.Location;
+import org.bukkit.util.Vector;
+
+import de.slikey.effectlib.binder.EffectBinder;
+import de.slikey.effectlib.binder.EffectBinders;
+
+/**
+ * Finished effects of one class, kept by {@link EffectManager} for reuse.
+ *
+ * Effects are reset by copying every instance field from a freshly constructed template.
+ * Collections, maps, arrays and vectors are refilled in place so their allocations are reused.
+ * Classes with any other kind of mutable state in their template can not be reset this way, and are not pooled.
+ */
+final class EffectPool {
+
+    private static final int PRIMITIVE = 0;
+    private static final int VALUE = 1;
+    private static final int COLLECTION = 2;
+    private static final int MAP = 3;
+    private static final int VECTOR = 4;
+    private static final int LOCATION = 5;
+    private static final int ARRAY = 6;
+    private static final int CONSTANT = 7;
+
+    private final Class<? extends Effect> effectClass;
+    private final ArrayDeque<Effect> effects = new ArrayDeque<>();
+    private Effect template;
+    private Field[] fields;
+    private int[] kinds;
+    private String unpoolableReason;
+
+    EffectPool(EffectManager effectManager, Class<? extends Effect> effectClass) {
+        this.effectClass = effectClass;
+
+        try {
+            EffectBinder binder = EffectBinders.getBinder(effectClass);
+            if (binder != null) {
+                template = binder.create(effectManager);
+            } else {
+                Constructor<? extends Effect> constructor = effectClass.getConstructor(EffectManager.class);
+                template = constructor.newInstance(effectManager);
+            }
+            inspect();
+        } catch (Exception ex) {
+            unpoolableReason = "could not create template: " + ex.getMessage();
+        }
+
+        if (unpoolableReason != null) {
+            template = null;
+            fields = null;
+            kinds = null;
+        }
+    }
+
+    private void inspect() throws IllegalAccessException {
+        List<Field> fieldList = new ArrayList<>();
+        List<Integer> kindList = new ArrayList<>();
+
+        Class<?> current = effectClass;
+        while (current != null && current != Object.class) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                // Transient fields track the effect's own lifecycle rather than its configuration, see Effect.runState
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) continue;
+
+                field.setAccessible(true);
+                int kind = getKind(field, field.get(template), Modifier.isFinal(modifiers));
+                if (kind < 0) {
+                    unpoolableReason = "can not reset field " + field.getName() + " of type " + field.getType().getSimpleName();
+                    return;
+                }
+                if (kind == CONSTANT) continue;
+
+                fieldList.add(field);
+                kindList.add(kind);
+            }
+            current = current.getSuperclass();
+        }
+
+        fields = fieldList.toArray(new Field[0]);
+        kinds = new int[kindList.size()];
+        for (int i = 0; i < kinds.length; i++) {
+            kinds[i] = kindList.get(i);
+        }
+    }
+
+    private static int getKind(Field field, Object value, boolean isFinal) {
+        if (field.getType().isPrimitive()) return isFinal ? CONSTANT : PRIMITIVE;
+        // The owning manager is shared by every effect in the pool
+        if (value == null || isImmutable(value) || value instanceof EffectManager) return isFinal ? CONSTANT : VALUE;
+        if (value instanceof Collection) return COLLECTION;
+        if (value instanceof Map) return MAP;
+        if (value instanceof Vector) return VECTOR;
+        if (value.getClass().isArray()) return ARRAY;
+        if (value instanceof Location && !isFinal) return LOCATION;
+        return -1;
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value instanceof String || value instanceof Integer || value instanceof Float
+            || value instanceof Double || value instanceof Long || value instanceof Short
+            || value instanceof Byte || value instanceof Boolean || value instanceof Character
+            || value instanceof Enum || value instanceof Color || value instanceof Font
+            || value instanceof UUID || value instanceof Class;
+    }
+
+    boolean isPoolable() {
+        return unpoolableReason == null;
+    }
+
+    String getUnpoolableReason() {
+        return unpoolableReason;
+    }
+
+    Class<? extends Effect> getEffectClass() {
+        return effectClass;
+    }
+
+    int size() {
+        return effects.size();
+    }
+
+    boolean contains(Effect effect) {
+        for (Effect pooled : effects) {
+            if (pooled == effect) return true;
+        }
+        return false;
+    }
+
+    Effect poll() {
+        return effects.pollFirst();
+    }
+
+    boolean offer(Effect effect, int maxSize) {
+        if (effects.size() >= maxSize) return false;
+        effects.addFirst(effect);
+        return true;
+    }
+
+    void clear() {
+        effects.clear();
+    }
+
+    /**
+     * Put every field of the given effect back to the state of a newly constructed one.
+     */
+    @SuppressWarnings("unchecked")
+    void reset(Effect effect) throws ReflectiveOperationException {
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            Object value = field.get(template);
+            switch (kinds[i]) {
+                case PRIMITIVE:
+                case VALUE:
+                    field.set(effect, value);
+                    break;
+                case COLLECTION: {
+                    Collection<Object> collection = (Collection<Object>) field.get(effect);
+                    if (collection == value) break;
+                    if (collection == null || collection.getClass() != value.getClass()) {
+                        collection = (Collection<Object>) value.getClass().getConstructor().newInstance();
+                        field.set(effect, collection);
+                    } else {
+                        collection.clear();
+                    }
+                    collection.addAll((Collection<Object>) value);
+                    break;
+                }
+                case MAP: {
+                    Map<Object, Object> map = (Map<Object, Object>) field.get(effect);
+                    if (map == value) break;
+                    if (map == null || map.getClass() != value.getClass()) {
+                        map = (Map<Object, Object>) value.getClass().getConstructor().newInstance();
+                        field.set(effect, map);
+                    } else {
+                        map.clear();
+                    }
+                    map.putAll((Map<Object, Object>) value);
+                    break;
+                }
+                case VECTOR: {
+                    Vector vector = (Vector) field.get(effect);
+                    if (vector == null) field.set(effect, ((Vector) value).clone());
+                    else vector.copy((Vector) value);
+                    break;
+                }
+                case LOCATION:
+                    field.set(effect, ((Location) value).clone());
+                    break;
+                case ARRAY: {
+                    Object array = field.get(effect);
+                    int length = Array.getLength(value);
+                    if (array == null || array.getClass() != value.getClass() || Array.getLength(array) != length) {
+                        array = Array.newInstance(value.getClass().getComponentType(), length);
+                        field.set(effect, array);
+                    }
+                    System.arraycopy(value, 0, array, 0, length);
+                    break;
+                }
+            }
+        }
+
+        // As in the Effect constructor, the range may have changed since the template was made
+        effect.visibleRange = effect.getEffectManager().getParticleRange();
+    }
+
+    /**
+     * Tracks an effect taken from a pool in debug mode, so effects that are never returned can be reported.
+     */
+    static final class Leak extends WeakReference<Effect> {
+
+        private final String effectClass;
+        private final Throwable acquiredAt;
+
+        Leak(Effect effect, ReferenceQueue<Effect> queue) {
+            super(effect, queue);
+            effectClass = effect.getClass().getSimpleName();
+            acquiredAt = new Throwable("Acquired here");
+        }
+
+        String getEffectClass() {
+            return effectClass;
+        }
+
+        Throwable getAcquiredAt() {
+            return acquiredAt;
+        }
+    }
+
+}
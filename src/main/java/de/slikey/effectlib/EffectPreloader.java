@@ -0,0 +1,184 @@
+package de.slikey.effectlib;
+
+import java.util.Map;
+import java.util.List;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.logging.Logger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Progress of a {@link EffectManager#preload(Collection)} call.
+ *
+ * Each effect is compiled if needed, configured and given a chance to load what it needs in {@link Effect#preload()}
+ * on a small pool of background threads.
+ */
+@SuppressWarnings({"unused"})
+public class EffectPreloader {
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private final EffectManager effectManager;
+    private final List<Object> effects;
+    private final Runnable callback;
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final Map<String, AtomicLong> classTimes = new ConcurrentHashMap<>();
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private volatile long startTime;
+    private volatile long endTime;
+
+    EffectPreloader(EffectManager effectManager, Collection<?> effects, Runnable callback) {
+        this.effectManager = effectManager;
+        this.effects = new ArrayList<Object>(effects);
+        this.callback = callback;
+    }
+
+    void start(int threads) {
+        startTime = System.nanoTime();
+        if (effects.isEmpty()) {
+            finish();
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "EffectLib Preload #" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+
+        for (final Object effect : effects) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    preload(effect);
+                }
+            });
+        }
+        executor.shutdown();
+    }
+
+    private void preload(Object effect) {
+        long start = System.nanoTime();
+        String effectClass = effect == null ? "null" : effect.getClass().getSimpleName();
+        try {
+            EffectSpec spec = null;
+            if (effect instanceof EffectSpec) {
+                spec = (EffectSpec) effect;
+            } else if (effect instanceof ConfigurationSection) {
+                ConfigurationSection section = (ConfigurationSection) effect;
+                effectClass = section.getString("class");
+                if (effectClass != null) spec = effectManager.compile(effectClass, section, "Preload");
+            }
+
+            if (spec == null) {
+                failed.incrementAndGet();
+                effectManager.onError("Could not preload effect: " + effectClass);
+            } else {
+                effectClass = spec.getEffectClass().getSimpleName();
+                spec.preload();
+            }
+        } catch (Throwable ex) {
+            failed.incrementAndGet();
+            effectManager.onError("Error preloading effect: " + effectClass, ex);
+        } finally {
+            addTime(String.valueOf(effectClass), System.nanoTime() - start);
+            if (completed.incrementAndGet() == effects.size()) finish();
+        }
+    }
+
+    private void addTime(String effectClass, long nanos) {
+        AtomicLong time = classTimes.get(effectClass);
+        if (time == null) {
+            AtomicLong newTime = new AtomicLong();
+            time = classTimes.putIfAbsent(effectClass, newTime);
+            if (time == null) time = newTime;
+        }
+        time.addAndGet(nanos);
+    }
+
+    private void finish() {
+        endTime = System.nanoTime();
+        latch.countDown();
+
+        Logger logger = effectManager.getLogger();
+        if (logger != null) {
+            logger.info("Preloaded " + (effects.size() - failed.get()) + " of " + effects.size() + " effects in " + getElapsedMillis() + "ms");
+        }
+
+        Plugin plugin = effectManager.getOwningPlugin();
+        if (callback != null && plugin != null && plugin.isEnabled()) {
+            plugin.getServer().getScheduler().runTask(plugin, callback);
+        }
+    }
+
+    public int getTotal() {
+        return effects.size();
+    }
+
+    /**
+     * @return the number of effects processed so far, including failed ones
+     */
+    public int getCompleted() {
+        return completed.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * @return progress from 0 to 1
+     */
+    public double getProgress() {
+        return effects.isEmpty() ? 1 : (double) completed.get() / effects.size();
+    }
+
+    public boolean isDone() {
+        return latch.getCount() == 0;
+    }
+
+    /**
+     * @return time since the preload started, or the total time taken once it is done
+     */
+    public long getElapsedMillis() {
+        long end = isDone() ? endTime : System.nanoTime();
+        return TimeUnit.NANOSECONDS.toMillis(end - startTime);
+    }
+
+    /**
+     * @return the total time spent preloading each effect class, in milliseconds. Time is summed across threads.
+     */
+    public Map<String, Long> getClassTimes() {
+        Map<String, Long> times = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : classTimes.entrySet()) {
+            times.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue().get()));
+        }
+        return times;
+    }
+
+    /**
+     * Wait for the preload to finish. Don't call this from the main thread unless a startup delay is acceptable.
+     *
+     * @return true if the preload finished in time
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return latch.await(timeout, unit);
+    }
+
+}
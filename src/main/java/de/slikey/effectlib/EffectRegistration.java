@@ -0,0 +1,86 @@
+package de.slikey.effectlib;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bukkit.entity.Player;
+import org.bukkit.configuration.ConfigurationSection;
+
+import de.slikey.effectlib.util.DynamicLocation;
+
+/**
+ * A named {@link EffectSpec} that can be replaced while effects started from it are running,
+ * see {@link EffectManager#register(String, EffectSpec)}.
+ *
+ * Infinite effects started from a registration switch to a replaced spec at their next iteration.
+ * Only the fields whose configured values changed are assigned, so an effect keeps anything it built from the rest.
+ */
+@SuppressWarnings({"unused"})
+public class EffectRegistration {
+
+    private final String name;
+    private final AtomicInteger version = new AtomicInteger(1);
+    private volatile EffectSpec spec;
+
+    EffectRegistration(String name, EffectSpec spec) {
+        this.name = name;
+        this.spec = spec;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public EffectSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * @return the number of specs registered under this name so far, starting at 1
+     */
+    public int getVersion() {
+        return version.get();
+    }
+
+    void setSpec(EffectSpec spec) {
+        this.spec = spec;
+        version.incrementAndGet();
+    }
+
+    /**
+     * Create and configure a new Effect from the current spec, without starting it.
+     *
+     * @param parameters values for "$" parameters by slot of the current spec, may be null
+     * @see EffectSpec#getEffect(DynamicLocation, DynamicLocation, Object[], Player)
+     */
+    public Effect getEffect(DynamicLocation origin, DynamicLocation target, Object[] parameters, Player targetPlayer) {
+        return getEffect(spec, origin, target, parameters, targetPlayer);
+    }
+
+    public Effect getEffect(DynamicLocation origin, DynamicLocation target, ConfigurationSection parameterMap, Player targetPlayer) {
+        EffectSpec current = spec;
+        return getEffect(current, origin, target, current.getParameters(parameterMap), targetPlayer);
+    }
+
+    private Effect getEffect(EffectSpec current, DynamicLocation origin, DynamicLocation target, Object[] parameters, Player targetPlayer) {
+        Effect effect = current.getEffect(origin, target, parameters, targetPlayer);
+        if (effect != null) effect.setRegistration(this, current, parameters == null ? null : parameters.clone());
+        return effect;
+    }
+
+    /**
+     * @return the started effect, the running effect it was merged into, or null if it could not be created or
+     *         was rejected as a duplicate, see {@link EffectManager#setDuplicatePolicy(DuplicatePolicy)}
+     */
+    public Effect start(DynamicLocation origin, DynamicLocation target, Object[] parameters, Player targetPlayer) {
+        Effect effect = getEffect(origin, target, parameters, targetPlayer);
+        if (effect == null) return null;
+        return effect.startOrMerge();
+    }
+
+    public Effect start(DynamicLocation origin, DynamicLocation target, ConfigurationSection parameterMap, Player targetPlayer) {
+        Effect effect = getEffect(origin, target, parameterMap, targetPlayer);
+        if (effect == null) return null;
+        return effect.startOrMerge();
+    }
+
+}
@@ -0,0 +1,87 @@
+package de.slikey.effectlib;
+
+import org.bukkit.entity.Player;
+import org.bukkit.configuration.ConfigurationSection;
+
+import de.slikey.effectlib.util.DynamicLocation;
+
+/**
+ * One effect to start with {@link EffectManager#startAll(java.util.List)}.
+ *
+ * A request is either a configured Effect, a compiled {@link EffectSpec}, a registered spec,
+ * or an effect class name with its configuration.
+ */
+@SuppressWarnings({"unused"})
+public class EffectRequest {
+
+    private final Effect effect;
+    private final EffectSpec spec;
+    private final EffectRegistration registration;
+    private final String effectClass;
+    private final ConfigurationSection configuration;
+    private final DynamicLocation origin;
+    private final DynamicLocation target;
+    private final Object[] parameters;
+    private final ConfigurationSection parameterMap;
+    private final Player targetPlayer;
+
+    private EffectRequest(Effect effect, EffectSpec spec, EffectRegistration registration, String effectClass, ConfigurationSection configuration,
+                          DynamicLocation origin, DynamicLocation target, Object[] parameters, ConfigurationSection parameterMap, Player targetPlayer) {
+        this.effect = effect;
+        this.spec = spec;
+        this.registration = registration;
+        this.effectClass = effectClass;
+        this.configuration = configuration;
+        this.origin = origin;
+        this.target = target;
+        this.parameters = parameters;
+        this.parameterMap = parameterMap;
+        this.targetPlayer = targetPlayer;
+    }
+
+    /**
+     * @param effect an effect that is configured but not started
+     */
+    public EffectRequest(Effect effect) {
+        this(effect, null, null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * @param parameters values for "$" parameters by slot, see {@link EffectSpec#newParameters()}. May be null.
+     */
+    public EffectRequest(EffectSpec spec, DynamicLocation origin, DynamicLocation target, Object[] parameters, Player targetPlayer) {
+        this(null, spec, null, null, null, origin, target, parameters, null, targetPlayer);
+    }
+
+    public EffectRequest(EffectRegistration registration, DynamicLocation origin, DynamicLocation target, Object[] parameters, Player targetPlayer) {
+        this(null, null, registration, null, null, origin, target, parameters, null, targetPlayer);
+    }
+
+    public EffectRequest(String effectClass, ConfigurationSection configuration, DynamicLocation origin, DynamicLocation target, ConfigurationSection parameterMap, Player targetPlayer) {
+        this(null, null, null, effectClass, configuration, origin, target, null, parameterMap, targetPlayer);
+    }
+
+    public DynamicLocation getOrigin() {
+        return origin;
+    }
+
+    public DynamicLocation getTarget() {
+        return target;
+    }
+
+    public Player getTargetPlayer() {
+        return targetPlayer;
+    }
+
+    /**
+     * @return the configured effect, or null if it could not be created
+     */
+    Effect createEffect(EffectManager effectManager) {
+        if (effect != null) return effect;
+        if (spec != null) return spec.getEffect(origin, target, parameters, targetPlayer);
+        if (registration != null) return registration.getEffect(origin, target, parameters, targetPlayer);
+        if (effectClass != null) return effectManager.getEffect(effectClass, configuration, origin, target, parameterMap, targetPlayer, "Batch");
+        return null;
+    }
+
+}
@@ -0,0 +1,556 @@
+package de.slikey.effectlib;
+
+import java.util.Map;
+import java.util.List;
+import java.awt.Font;
+import java.util.Set;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.lang.reflect.Field;
+import java.lang.reflect.Constructor;
+
+import org.bukkit.Color;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.util.Vector;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.configuration.ConfigurationSection;
+
+import de.slikey.effectlib.util.CustomSound;
+import de.slikey.effectlib.util.DynamicLocation;
+import de.slikey.effectlib.binder.EffectBinder;
+
+/**
+ * An immutable, pre-parsed effect configuration.
+ *
+ * Create one with {@link EffectManager#compile(String, ConfigurationSection)} and start it as many times as needed,
+ * each start creates a new Effect and assigns the already-parsed values to it.
+ *
+ * Values that start with "$" are parameters. Each distinct parameter gets a numbered slot, see {@link #getParameterSlot(String)}.
+ * Starting the spec with an array of slot values skips all parameter name lookups.
+ */
+@SuppressWarnings({"unused"})
+public final class EffectSpec {
+
+    private final EffectManager effectManager;
+    private final String effectClass;
+    private final Class<? extends Effect> effectLibClass;
+    private final EffectBinder binder;
+    private final Constructor<? extends Effect> constructor;
+    private final List<Binding> bindings;
+    private final String[] parameterNames;
+    private final Map<String, Integer> parameterSlots;
+    private final String logContext;
+
+    EffectSpec(EffectManager effectManager, String effectClass, Class<? extends Effect> effectLibClass, EffectBinder binder, Constructor<? extends Effect> constructor, List<Binding> bindings, Map<String, Integer> parameterSlots, String logContext) {
+        this.effectManager = effectManager;
+        this.effectClass = effectClass;
+        this.effectLibClass = effectLibClass;
+        this.binder = binder;
+        this.constructor = constructor;
+        this.bindings = Collections.unmodifiableList(new ArrayList<>(bindings));
+        this.parameterSlots = Collections.unmodifiableMap(new HashMap<>(parameterSlots));
+        this.parameterNames = new String[parameterSlots.size()];
+        for (Map.Entry<String, Integer> entry : parameterSlots.entrySet()) {
+            parameterNames[entry.getValue()] = entry.getKey();
+        }
+        this.logContext = logContext;
+    }
+
+    public EffectManager getEffectManager() {
+        return effectManager;
+    }
+
+    public String getEffectClassName() {
+        return effectClass;
+    }
+
+    public Class<? extends Effect> getEffectClass() {
+        return effectLibClass;
+    }
+
+    List<Binding> getBindings() {
+        return bindings;
+    }
+
+    String getLogContext() {
+        return logContext;
+    }
+
+    public int getParameterCount() {
+        return parameterNames.length;
+    }
+
+    /**
+     * @param slot a slot number, from 0 to {@link #getParameterCount()} - 1
+     * @return the parameter name for this slot, including the leading "$"
+     */
+    public String getParameterName(int slot) {
+        return parameterNames[slot];
+    }
+
+    /**
+     * @param parameter the parameter name, including the leading "$"
+     * @return the slot for this parameter, or -1 if this spec does not use it
+     */
+    public int getParameterSlot(String parameter) {
+        Integer slot = parameterSlots.get(parameter);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * @return an empty array of parameter values for this spec. Slots left null use the literal value from the configuration.
+     */
+    public Object[] newParameters() {
+        return new Object[parameterNames.length];
+    }
+
+    /**
+     * Look up this spec's parameters in a parameter map.
+     *
+     * @return the slot values, or null if parameterMap is null
+     */
+    public Object[] getParameters(ConfigurationSection parameterMap) {
+        if (parameterMap == null) return null;
+
+        Object[] parameters = newParameters();
+        for (int i = 0; i < parameterNames.length; i++) {
+            parameters[i] = parameterMap.get(parameterNames[i]);
+        }
+        return parameters;
+    }
+
+    /**
+     * Create and configure a new Effect from this spec, without starting it.
+     *
+     * @param origin the origin location
+     * @param target the target location, may be null
+     * @param parameterMap values for "$" parameters, may be null
+     * @param targetPlayer the player who should see this effect, or null for everyone in range
+     * @return effect or null
+     */
+    public Effect getEffect(DynamicLocation origin, DynamicLocation target, ConfigurationSection parameterMap, Player targetPlayer) {
+        return getEffect(origin, target, getParameters(parameterMap), targetPlayer);
+    }
+
+    /**
+     * Create and configure a new Effect from this spec, without starting it.
+     *
+     * @param origin the origin location
+     * @param target the target location, may be null
+     * @param parameters values for "$" parameters by slot, see {@link #newParameters()}. May be null.
+     * @param targetPlayer the player who should see this effect, or null for everyone in range
+     * @return effect or null
+     */
+    public Effect getEffect(DynamicLocation origin, DynamicLocation target, Object[] parameters, Player targetPlayer) {
+        Effect effect = newConfiguredEffect(parameters);
+        if (effect == null) return null;
+
+        effect.initialize();
+        if (origin != null) effect.setDynamicOrigin(origin);
+        effect.setDynamicTarget(target);
+
+        if (targetPlayer != null) effect.setTargetPlayer(targetPlayer);
+        effect.identitySource = this;
+        effect.identityParameters = parameters == null ? null : parameters.clone();
+
+        return effect;
+    }
+
+    private Effect newConfiguredEffect(Object[] parameters) {
+        Effect effect;
+        try {
+            effect = effectManager.newEffect(effectLibClass, binder, constructor);
+        } catch (Exception ex) {
+            effectManager.onError("Error loading EffectLib class: " + effectClass, ex);
+            return null;
+        }
+
+        for (Binding binding : bindings) {
+            binding.apply(this, effect, parameters);
+        }
+        return effect;
+    }
+
+    /**
+     * Load anything this effect needs the first time it runs, such as equations, images or fonts.
+     * This may take a while, call it from a background thread. See {@link EffectManager#preload}.
+     */
+    public void preload() {
+        Effect effect = newConfiguredEffect(null);
+        if (effect == null) return;
+
+        try {
+            effect.preload();
+        } finally {
+            effectManager.releaseEffect(effect);
+        }
+    }
+
+    /**
+     * Move parameter values given for a previous version of this spec to this spec's slots.
+     */
+    Object[] remapParameters(EffectSpec previous, Object[] parameters) {
+        if (parameters == null) return null;
+
+        Object[] remapped = newParameters();
+        for (int i = 0; i < parameters.length && i < previous.parameterNames.length; i++) {
+            int slot = getParameterSlot(previous.parameterNames[i]);
+            if (slot >= 0) remapped[slot] = parameters[i];
+        }
+        return remapped;
+    }
+
+    /**
+     * Update an effect configured from a previous spec of the same class, assigning only the values that changed.
+     * Fields the previous spec assigned that this one doesn't are put back to their defaults.
+     *
+     * @param parameters values for this spec's parameter slots, may be null
+     * @return the names of the fields that were assigned
+     */
+    Set<String> reapply(Effect effect, EffectSpec previous, Object[] parameters) {
+        Map<String, Binding> previousBindings = new HashMap<>();
+        for (Binding binding : previous.bindings) {
+            previousBindings.put(binding.fieldName, binding);
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+        for (Binding binding : bindings) {
+            Binding previousBinding = previousBindings.remove(binding.fieldName);
+            if (previousBinding != null && binding.isSameAs(previousBinding)) continue;
+            binding.assign(this, effect, parameters, true);
+            changed.add(binding.fieldName);
+        }
+        if (previousBindings.isEmpty()) return changed;
+
+        Effect defaults;
+        try {
+            defaults = binder != null ? binder.create(effectManager) : constructor.newInstance(effectManager);
+        } catch (Exception ex) {
+            effectManager.onError("Error loading EffectLib class: " + effectClass, ex);
+            return changed;
+        }
+
+        for (Binding binding : previousBindings.values()) {
+            try {
+                Object value = EffectManager.getFieldValue(defaults, binder, binding.field, binding.fieldName);
+                EffectManager.setFieldValue(effect, binder, binding.field, binding.fieldName, value);
+                changed.add(binding.fieldName);
+            } catch (Exception ex) {
+                effectManager.onError("Error resetting EffectLib property: '" + binding.key + "' of class: '" + effect.getClass().getSimpleName() + "' in: '" + logContext + "': " + ex.getMessage(), ex);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return the started effect, the running effect it was merged into, or null if it could not be created or
+     *         was rejected as a duplicate, see {@link EffectManager#setDuplicatePolicy(DuplicatePolicy)}
+     */
+    public Effect start(DynamicLocation origin, DynamicLocation target, Object[] parameters, Player targetPlayer) {
+        Effect effect = getEffect(origin, target, parameters, targetPlayer);
+        if (effect == null) return null;
+        return effect.startOrMerge();
+    }
+
+    public Effect start(DynamicLocation origin, DynamicLocation target, ConfigurationSection parameterMap, Player targetPlayer) {
+        return start(origin, target, getParameters(parameterMap), targetPlayer);
+    }
+
+    public Effect start(DynamicLocation origin, DynamicLocation target, ConfigurationSection parameterMap) {
+        return start(origin, target, parameterMap, null);
+    }
+
+    public Effect start(Location origin) {
+        return start(new DynamicLocation(origin), null, (Object[]) null, null);
+    }
+
+    public Effect start(Entity origin) {
+        return start(new DynamicLocation(origin), null, (Object[]) null, null);
+    }
+
+    /**
+     * Get or assign the slot for a parameter while compiling.
+     */
+    static int getSlot(Map<String, Integer> slots, String parameter) {
+        Integer slot = slots.get(parameter);
+        if (slot == null) {
+            slot = slots.size();
+            slots.put(parameter, slot);
+        }
+        return slot;
+    }
+
+    static final class Binding {
+
+        private static final int VALUE = 0;
+        private static final int VECTOR = 1;
+        private static final int SOUND = 2;
+        private static final int MAP = 3;
+        private static final int SECTION = 4;
+        private static final int SLOT = 5;
+        private static final int RANDOM_COLOR = 6;
+
+        // How a parameter value is converted, matching the ConfigurationSection getters setField uses
+        private static final int TYPE_NONE = -1;
+        private static final int TYPE_INT = 0;
+        private static final int TYPE_FLOAT = 1;
+        private static final int TYPE_DOUBLE = 2;
+        private static final int TYPE_BOOLEAN = 3;
+        private static final int TYPE_LONG = 4;
+        private static final int TYPE_SHORT = 5;
+        private static final int TYPE_BYTE = 6;
+        private static final int TYPE_STRING = 7;
+        private static final int TYPE_COLOR = 8;
+        private static final int TYPE_VECTOR = 9;
+        private static final int TYPE_PARTICLE = 10;
+        private static final int TYPE_ENUM = 11;
+        private static final int TYPE_FONT = 12;
+        private static final int TYPE_SOUND = 13;
+
+        private final String fieldName;
+        // Only set if the effect has no binder
+        private final Field field;
+        private final String key;
+        private final Object value;
+        private final int kind;
+
+        private Class<?> type;
+        private int valueType = TYPE_NONE;
+        private int slot = -1;
+        // Keys and slots of "$" values in a SECTION binding
+        private String[] sectionKeys;
+        private int[] sectionSlots;
+
+        private Binding(String fieldName, Field field, String key, Object value, int kind) {
+            this.fieldName = fieldName;
+            this.field = field;
+            this.key = key;
+            this.value = value;
+            this.kind = kind;
+        }
+
+        String getFieldName() {
+            return fieldName;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        /**
+         * @return the assigned value, or the literal value of a slot
+         */
+        Object getValue() {
+            return value;
+        }
+
+        boolean isSlot() {
+            return kind == SLOT;
+        }
+
+        int getSlotIndex() {
+            return slot;
+        }
+
+        boolean isRandomColor() {
+            return kind == RANDOM_COLOR;
+        }
+
+        /**
+         * @return true if this assigns the same value to the same field as the other binding
+         */
+        boolean isSameAs(Binding other) {
+            if (kind != other.kind || valueType != other.valueType || !fieldName.equals(other.fieldName)) return false;
+            if (value == null || other.value == null) return value == other.value;
+            // Neither of these implement equals
+            if (value instanceof CustomSound) return value.toString().equals(other.value.toString());
+            if (value instanceof ConfigurationSection) {
+                return other.value instanceof ConfigurationSection && ((ConfigurationSection) value).getValues(true).equals(((ConfigurationSection) other.value).getValues(true));
+            }
+            return value.equals(other.value);
+        }
+
+        static boolean isParameterType(Class<?> type) {
+            return getValueType(type) != TYPE_NONE;
+        }
+
+        /**
+         * A "$" parameter, the literal value is used when no value is given for its slot.
+         */
+        static Binding slot(String fieldName, Field field, Class<?> type, String key, int slot, String literal) {
+            Binding binding = new Binding(fieldName, field, key, literal, SLOT);
+            binding.type = type;
+            binding.valueType = getValueType(type);
+            binding.slot = slot;
+            return binding;
+        }
+
+        static Binding randomColor(String fieldName, Field field, String key) {
+            return new Binding(fieldName, field, key, null, RANDOM_COLOR);
+        }
+
+        /**
+         * A sub-section, its "$" values get slots in the spec so they can be replaced when starting.
+         */
+        static Binding section(String fieldName, Field field, String key, ConfigurationSection section, Map<String, Integer> slots) {
+            Binding binding = new Binding(fieldName, field, key, section, SECTION);
+
+            // Note this doesn't handle sections within sections.
+            List<String> keys = new ArrayList<>();
+            List<Integer> keySlots = new ArrayList<>();
+            for (String sectionKey : section.getKeys(false)) {
+                Object sectionValue = section.get(sectionKey);
+                if (!(sectionValue instanceof String) || !((String) sectionValue).startsWith("$")) continue;
+                keys.add(sectionKey);
+                keySlots.add(getSlot(slots, (String) sectionValue));
+            }
+
+            if (!keys.isEmpty()) {
+                binding.sectionKeys = keys.toArray(new String[0]);
+                binding.sectionSlots = new int[keySlots.size()];
+                for (int i = 0; i < binding.sectionSlots.length; i++) {
+                    binding.sectionSlots[i] = keySlots.get(i);
+                }
+            }
+            return binding;
+        }
+
+        @SuppressWarnings("unchecked")
+        static Binding of(String fieldName, Field field, String key, Object value) {
+            if (value instanceof Vector) return new Binding(fieldName, field, key, ((Vector) value).clone(), VECTOR);
+            if (value instanceof CustomSound) return new Binding(fieldName, field, key, new CustomSound((CustomSound) value), SOUND);
+            if (value instanceof Map) return new Binding(fieldName, field, key, new HashMap<>((Map<String, Object>) value), MAP);
+            return new Binding(fieldName, field, key, value, VALUE);
+        }
+
+        private static int getValueType(Class<?> type) {
+            if (type.equals(Integer.TYPE) || type.equals(Integer.class)) return TYPE_INT;
+            if (type.equals(Float.TYPE) || type.equals(Float.class)) return TYPE_FLOAT;
+            if (type.equals(Double.TYPE) || type.equals(Double.class)) return TYPE_DOUBLE;
+            if (type.equals(Boolean.TYPE) || type.equals(Boolean.class)) return TYPE_BOOLEAN;
+            if (type.equals(Long.TYPE) || type.equals(Long.class)) return TYPE_LONG;
+            if (type.equals(Short.TYPE) || type.equals(Short.class)) return TYPE_SHORT;
+            if (type.equals(Byte.TYPE) || type.equals(Byte.class)) return TYPE_BYTE;
+            if (type.equals(String.class)) return TYPE_STRING;
+            if (type.equals(Color.class)) return TYPE_COLOR;
+            if (type.equals(Vector.class)) return TYPE_VECTOR;
+            if (type.equals(Particle.class)) return TYPE_PARTICLE;
+            if (type.isEnum()) return TYPE_ENUM;
+            if (type.equals(Font.class)) return TYPE_FONT;
+            if (type.equals(CustomSound.class)) return TYPE_SOUND;
+            return TYPE_NONE;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Object convert(Object raw) {
+            switch (valueType) {
+                case TYPE_INT:
+                    return raw instanceof Number ? ((Number) raw).intValue() : 0;
+                case TYPE_FLOAT:
+                    return raw instanceof Number ? (float) ((Number) raw).doubleValue() : 0f;
+                case TYPE_DOUBLE:
+                    return raw instanceof Number ? ((Number) raw).doubleValue() : 0d;
+                case TYPE_BOOLEAN:
+                    return raw instanceof Boolean ? raw : false;
+                case TYPE_LONG:
+                    return raw instanceof Number ? ((Number) raw).longValue() : 0L;
+                case TYPE_SHORT:
+                    return (short) (raw instanceof Number ? ((Number) raw).intValue() : 0);
+                case TYPE_BYTE:
+                    return (byte) (raw instanceof Number ? ((Number) raw).intValue() : 0);
+                case TYPE_STRING:
+                    return raw.toString();
+                case TYPE_COLOR:
+                    return EffectManager.parseColor(raw.toString());
+                case TYPE_VECTOR:
+                    return EffectManager.parseVector(raw.toString());
+                case TYPE_PARTICLE:
+                    return EffectManager.parseParticle(raw.toString());
+                case TYPE_ENUM:
+                    return Enum.valueOf((Class<Enum>) type, raw.toString().toUpperCase());
+                case TYPE_FONT:
+                    return Font.decode(raw.toString());
+                case TYPE_SOUND:
+                    return new CustomSound(raw.toString());
+            }
+            throw new IllegalArgumentException("Unsupported parameter type " + type.getSimpleName());
+        }
+
+        private ConfigurationSection getSection(Object[] parameters) {
+            ConfigurationSection baseSection = (ConfigurationSection) value;
+            if (sectionKeys == null || parameters == null) return baseSection;
+
+            ConfigurationSection section = null;
+            for (int i = 0; i < sectionKeys.length; i++) {
+                Object parameter = sectionSlots[i] < parameters.length ? parameters[sectionSlots[i]] : null;
+                if (parameter == null) continue;
+
+                if (section == null) {
+                    section = new MemoryConfiguration();
+                    for (String baseKey : baseSection.getKeys(false)) {
+                        section.set(baseKey, baseSection.get(baseKey));
+                    }
+                }
+                // If this is an equation it will get parsed when needed
+                section.set(sectionKeys[i], parameter.toString());
+            }
+
+            return section == null ? baseSection : section;
+        }
+
+        private void set(EffectSpec spec, Effect effect, Object fieldValue) throws ReflectiveOperationException {
+            EffectManager.setFieldValue(effect, spec.binder, field, fieldName, fieldValue);
+        }
+
+        void apply(EffectSpec spec, Effect effect, Object[] parameters) {
+            assign(spec, effect, parameters, false);
+        }
+
+        /**
+         * @param replace if true, map values replace the contents of the effect's map instead of being added to it
+         */
+        @SuppressWarnings("unchecked")
+        void assign(EffectSpec spec, Effect effect, Object[] parameters, boolean replace) {
+            try {
+                switch (kind) {
+                    case VALUE:
+                        set(spec, effect, value);
+                        break;
+                    case VECTOR:
+                        set(spec, effect, ((Vector) value).clone());
+                        break;
+                    case SOUND:
+                        set(spec, effect, new CustomSound((CustomSound) value));
+                        break;
+                    case MAP:
+                        Map<String, Object> map = (Map<String, Object>) EffectManager.getFieldValue(effect, spec.binder, field, fieldName);
+                        if (map == null) {
+                            set(spec, effect, new HashMap<>((Map<String, Object>) value));
+                            break;
+                        }
+                        if (replace) map.clear();
+                        map.putAll((Map<String, Object>) value);
+                        break;
+                    case SECTION:
+                        set(spec, effect, getSection(parameters));
+                        break;
+                    case SLOT:
+                        Object parameter = parameters != null && slot < parameters.length ? parameters[slot] : null;
+                        set(spec, effect, convert(parameter == null ? value : parameter));
+                        break;
+                    case RANDOM_COLOR:
+                        set(spec, effect, EffectManager.parseColor("random"));
+                        break;
+                }
+            } catch (Exception ex) {
+                spec.effectManager.onError("Error assigning EffectLib property: '" + key + "' of class: '" + effect.getClass().getSimpleName() + "' in: '" + spec.logContext + "': " + ex.getMessage(), ex);
+            }
+        }
+    }
+
+}
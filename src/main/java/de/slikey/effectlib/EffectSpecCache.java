@@ -0,0 +1,672 @@
+package de.slikey.effectlib;
+
+import java.io.File;
+import java.util.Map;
+import java.util.List;
+import java.awt.Font;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.nio.file.Files;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.io.DataOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Constructor;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.nio.file.AtomicMoveNotSupportedException;
+
+import org.bukkit.Color;
+import org.bukkit.util.Vector;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import com.google.common.primitives.Primitives;
+
+import de.slikey.effectlib.util.CustomSound;
+import de.slikey.effectlib.util.ImageLoadTask;
+import de.slikey.effectlib.util.BaseImageEffect;
+import de.slikey.effectlib.binder.EffectBinder;
+import de.slikey.effectlib.binder.EffectBinders;
+
+/**
+ * A binary snapshot of compiled {@link EffectSpec}s, so a large effect configuration does not have to be
+ * parsed and compiled again on every startup.
+ *
+ * The snapshot file is only used if it was written from a configuration with the same content hash.
+ * Otherwise the configuration is compiled as usual and the snapshot is written again.
+ * The frames of images used by image effects are stored along with the specs, with the size and modification time
+ * of their file. Frames of an image file that changed since are not used, the image is loaded from its file instead.
+ *
+ * Specs with values that can not be stored, such as item stacks, are stored as their source configuration
+ * and compiled when loading.
+ */
+@SuppressWarnings({"unused"})
+public class EffectSpecCache {
+
+    private static final int MAGIC = 0x454C5343;
+    // Bump this whenever the format, or the way compiled values are assigned, changes
+    private static final int FORMAT_VERSION = 2;
+
+    private static final byte SPEC_COMPILED = 0;
+    private static final byte SPEC_SOURCE = 1;
+
+    private static final byte BINDING_VALUE = 0;
+    private static final byte BINDING_SLOT = 1;
+    private static final byte BINDING_RANDOM_COLOR = 2;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_BOOLEAN = 1;
+    private static final byte TAG_INT = 2;
+    private static final byte TAG_LONG = 3;
+    private static final byte TAG_SHORT = 4;
+    private static final byte TAG_BYTE = 5;
+    private static final byte TAG_FLOAT = 6;
+    private static final byte TAG_DOUBLE = 7;
+    private static final byte TAG_CHARACTER = 8;
+    private static final byte TAG_STRING = 9;
+    private static final byte TAG_COLOR = 10;
+    private static final byte TAG_VECTOR = 11;
+    private static final byte TAG_ENUM = 12;
+    private static final byte TAG_FONT = 13;
+    private static final byte TAG_SOUND = 14;
+    private static final byte TAG_LIST = 15;
+    private static final byte TAG_MAP = 16;
+    private static final byte TAG_SECTION = 17;
+    // Only used when hashing a configuration
+    private static final byte TAG_OTHER = 18;
+
+    private final EffectManager effectManager;
+    private final File file;
+    private boolean loadedFromSnapshot;
+    private long loadMillis;
+
+    public EffectSpecCache(EffectManager effectManager, File file) {
+        this.effectManager = effectManager;
+        this.file = file;
+    }
+
+    /**
+     * @param fileName the snapshot file, in the data folder of the manager's plugin
+     */
+    public EffectSpecCache(EffectManager effectManager, String fileName) {
+        this(effectManager, new File(effectManager.getOwningPlugin().getDataFolder(), fileName));
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return true if the last load used the snapshot, false if the configuration had to be compiled
+     */
+    public boolean isLoadedFromSnapshot() {
+        return loadedFromSnapshot;
+    }
+
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    /**
+     * Delete the snapshot, the next load will compile the configuration.
+     */
+    public void invalidate() {
+        if (file.exists() && !file.delete()) effectManager.onError("Could not delete effect snapshot " + file.getPath());
+    }
+
+    /**
+     * Load the effects in a YAML file, where each top-level key is an effect with a "class".
+     * The file is only parsed if there is no up-to-date snapshot of it.
+     *
+     * @return the compiled effects by key, in file order
+     */
+    public Map<String, EffectSpec> load(File configFile) {
+        long start = System.nanoTime();
+        byte[] hash;
+        try {
+            hash = hash(Files.readAllBytes(configFile.toPath()));
+        } catch (IOException ex) {
+            effectManager.getLogger().log(Level.WARNING, "Could not read effect configuration " + configFile.getPath(), ex);
+            return new LinkedHashMap<>();
+        }
+
+        Map<String, EffectSpec> specs = read(hash);
+        loadedFromSnapshot = specs != null;
+        if (specs == null) specs = compile(YamlConfiguration.loadConfiguration(configFile), hash);
+        return finish(specs, start);
+    }
+
+    /**
+     * Load the effects in a configuration section, where each key is an effect with a "class".
+     * This saves compiling the effects, but the configuration has to be parsed to check that the snapshot is up to date.
+     *
+     * @return the compiled effects by key, in configuration order
+     */
+    public Map<String, EffectSpec> load(ConfigurationSection effects) {
+        long start = System.nanoTime();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeValue(out, effects, true);
+            out.flush();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        byte[] hash = hash(bytes.toByteArray());
+
+        Map<String, EffectSpec> specs = read(hash);
+        loadedFromSnapshot = specs != null;
+        if (specs == null) specs = compile(effects, hash);
+        return finish(specs, start);
+    }
+
+    private Map<String, EffectSpec> finish(Map<String, EffectSpec> specs, long start) {
+        loadMillis = (System.nanoTime() - start) / 1000000;
+        Logger logger = effectManager.getLogger();
+        if (logger != null) {
+            logger.info((loadedFromSnapshot ? "Loaded " : "Compiled ") + specs.size() + " effects in " + loadMillis + "ms" + (loadedFromSnapshot ? " from " + file.getName() : ""));
+        }
+        return specs;
+    }
+
+    private static byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private Map<String, EffectSpec> compile(ConfigurationSection effects, byte[] hash) {
+        Map<String, EffectSpec> specs = new LinkedHashMap<>();
+        Map<String, ConfigurationSection> sources = new HashMap<>();
+        for (String key : effects.getKeys(false)) {
+            ConfigurationSection effect = effects.getConfigurationSection(key);
+            String effectClass = effect == null ? null : effect.getString("class");
+            if (effectClass == null) {
+                effectManager.onError("Effect " + key + " has no class");
+                continue;
+            }
+
+            EffectSpec spec = effectManager.compile(effectClass, effect, key);
+            if (spec == null) continue;
+            specs.put(key, spec);
+            sources.put(key, effect);
+        }
+
+        write(hash, specs, sources);
+        return specs;
+    }
+
+    private Map<String, EffectSpec> read(byte[] hash) {
+        if (!file.isFile()) return null;
+
+        try {
+            // Read into memory rather than mapping, a mapped file can not be replaced on Windows when writing it again
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            if (buffer.remaining() < 12 + hash.length || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                effectManager.onError("Effect snapshot " + file.getName() + " is from another version, compiling the configuration again");
+                return null;
+            }
+
+            byte[] snapshotHash = new byte[hash.length];
+            buffer.get(snapshotHash);
+            if (!Arrays.equals(hash, snapshotHash)) {
+                effectManager.onError("Effect snapshot " + file.getName() + " is out of date, compiling the configuration again");
+                return null;
+            }
+
+            int count = buffer.getInt();
+            Map<String, EffectSpec> specs = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                String key = readString(buffer);
+                byte mode = buffer.get();
+                EffectSpec spec;
+                if (mode == SPEC_COMPILED) {
+                    spec = readCompiled(buffer);
+                } else if (mode == SPEC_SOURCE) {
+                    String effectClass = readString(buffer);
+                    Object source = readValue(buffer);
+                    if (!(source instanceof ConfigurationSection)) throw new IOException("Invalid source for effect " + key);
+                    spec = effectManager.compile(effectClass, (ConfigurationSection) source, key);
+                } else {
+                    throw new IOException("Invalid effect " + key);
+                }
+                if (spec != null) specs.put(key, spec);
+            }
+
+            readImages(buffer);
+            return specs;
+        } catch (IOException | RuntimeException ex) {
+            effectManager.onError("Could not read effect snapshot " + file.getName() + ", compiling the configuration again", ex);
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private EffectSpec readCompiled(ByteBuffer buffer) throws IOException {
+        String effectClass = readString(buffer);
+        String logContext = readString(buffer);
+        Map<String, Integer> parameterSlots = new HashMap<>();
+        int slotCount = buffer.getInt();
+        for (int i = 0; i < slotCount; i++) {
+            parameterSlots.put(readString(buffer), i);
+        }
+
+        Class<? extends Effect> effectLibClass = effectManager.getEffectClass(effectClass);
+        if (effectLibClass == null) throw new IOException("Unknown effect class " + effectClass);
+
+        EffectBinder binder = EffectBinders.getBinder(effectLibClass);
+        Constructor<? extends Effect> constructor = null;
+        try {
+            if (binder == null) constructor = effectLibClass.getConstructor(EffectManager.class);
+        } catch (NoSuchMethodException ex) {
+            throw new IOException("Can not create effect class " + effectClass, ex);
+        }
+
+        // The effect classes may have changed since the snapshot was written, so check every field
+        int count = buffer.getInt();
+        List<EffectSpec.Binding> bindings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte kind = buffer.get();
+            String key = readString(buffer);
+            String fieldName = readString(buffer);
+
+            Field field = null;
+            Class<?> fieldType;
+            if (binder != null) {
+                fieldType = binder.getFieldType(fieldName);
+            } else {
+                try {
+                    field = effectLibClass.getField(fieldName);
+                    fieldType = field.getType();
+                } catch (NoSuchFieldException ex) {
+                    fieldType = null;
+                }
+            }
+            if (fieldType == null) throw new IOException("Effect class " + effectClass + " has no field " + fieldName);
+
+            switch (kind) {
+                case BINDING_VALUE:
+                    Object value = readValue(buffer);
+                    if (value != null && !Primitives.wrap(fieldType).isInstance(value)) {
+                        throw new IOException("Field " + fieldName + " of " + effectClass + " can not be assigned a " + value.getClass().getSimpleName());
+                    }
+                    if (value instanceof ConfigurationSection) bindings.add(EffectSpec.Binding.section(fieldName, field, key, (ConfigurationSection) value, parameterSlots));
+                    else bindings.add(EffectSpec.Binding.of(fieldName, field, key, value));
+                    break;
+                case BINDING_SLOT:
+                    int slot = buffer.getInt();
+                    String literal = readString(buffer);
+                    if (!EffectSpec.Binding.isParameterType(fieldType)) throw new IOException("Field " + fieldName + " of " + effectClass + " can not be a parameter");
+                    bindings.add(EffectSpec.Binding.slot(fieldName, field, fieldType, key, slot, literal));
+                    break;
+                case BINDING_RANDOM_COLOR:
+                    bindings.add(EffectSpec.Binding.randomColor(fieldName, field, key));
+                    break;
+                default:
+                    throw new IOException("Invalid property " + key + " of effect class " + effectClass);
+            }
+        }
+
+        return new EffectSpec(effectManager, effectClass, effectLibClass, binder, constructor, bindings, parameterSlots, logContext);
+    }
+
+    private void readImages(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            String fileName = readString(buffer);
+            long length = buffer.getLong();
+            long lastModified = buffer.getLong();
+            File imageFile = ImageLoadTask.getImageFile(effectManager, fileName);
+            boolean current = imageFile != null && imageFile.length() == length && imageFile.lastModified() == lastModified;
+
+            BufferedImage[] images = new BufferedImage[buffer.getInt()];
+            for (int frame = 0; frame < images.length; frame++) {
+                int width = buffer.getInt();
+                int height = buffer.getInt();
+                if (!current) {
+                    buffer.position(buffer.position() + width * height * 4);
+                    continue;
+                }
+
+                int[] pixels = new int[width * height];
+                buffer.asIntBuffer().get(pixels);
+                buffer.position(buffer.position() + pixels.length * 4);
+
+                images[frame] = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+                images[frame].setRGB(0, 0, width, height, pixels, 0, width);
+            }
+            if (current && effectManager.getCachedImages(fileName) == null) effectManager.putCachedImages(fileName, images);
+        }
+    }
+
+    private void write(byte[] hash, Map<String, EffectSpec> specs, Map<String, ConfigurationSection> sources) {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.write(hash);
+            out.writeInt(specs.size());
+            for (Map.Entry<String, EffectSpec> entry : specs.entrySet()) {
+                writeString(out, entry.getKey());
+                writeSpec(out, entry.getValue(), sources.get(entry.getKey()));
+            }
+            writeImages(out, specs.values());
+            out.flush();
+
+            File folder = file.getAbsoluteFile().getParentFile();
+            if (folder != null && !folder.exists() && !folder.mkdirs()) throw new IOException("Could not create folder " + folder.getPath());
+            Files.write(tempFile.toPath(), bytes.toByteArray());
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException ex) {
+            effectManager.getLogger().log(Level.WARNING, "Could not write effect snapshot " + file.getPath(), ex);
+            tempFile.delete();
+        }
+    }
+
+    private void writeSpec(DataOutputStream out, EffectSpec spec, ConfigurationSection source) throws IOException {
+        ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+        try {
+            DataOutputStream compiledOut = new DataOutputStream(compiled);
+            writeCompiled(compiledOut, spec);
+            compiledOut.flush();
+        } catch (UnsupportedValueException ex) {
+            effectManager.onError("Effect " + spec.getLogContext() + " will be compiled when loading: " + ex.getMessage());
+            out.writeByte(SPEC_SOURCE);
+            writeString(out, spec.getEffectClassName());
+            writeValue(out, source, false);
+            return;
+        }
+
+        out.writeByte(SPEC_COMPILED);
+        compiled.writeTo(out);
+    }
+
+    private void writeCompiled(DataOutputStream out, EffectSpec spec) throws IOException {
+        writeString(out, spec.getEffectClassName());
+        writeString(out, spec.getLogContext());
+        out.writeInt(spec.getParameterCount());
+        for (int i = 0; i < spec.getParameterCount(); i++) {
+            writeString(out, spec.getParameterName(i));
+        }
+
+        List<EffectSpec.Binding> bindings = spec.getBindings();
+        out.writeInt(bindings.size());
+        for (EffectSpec.Binding binding : bindings) {
+            if (binding.isSlot()) {
+                out.writeByte(BINDING_SLOT);
+            } else if (binding.isRandomColor()) {
+                out.writeByte(BINDING_RANDOM_COLOR);
+            } else {
+                out.writeByte(BINDING_VALUE);
+            }
+            writeString(out, binding.getKey());
+            writeString(out, binding.getFieldName());
+
+            if (binding.isSlot()) {
+                out.writeInt(binding.getSlotIndex());
+                writeString(out, (String) binding.getValue());
+            } else if (!binding.isRandomColor()) {
+                writeValue(out, binding.getValue(), false);
+            }
+        }
+    }
+
+    private void writeImages(DataOutputStream out, Iterable<EffectSpec> specs) throws IOException {
+        Map<String, BufferedImage[]> images = new LinkedHashMap<>();
+        Map<String, File> imageFiles = new HashMap<>();
+        for (EffectSpec spec : specs) {
+            if (!BaseImageEffect.class.isAssignableFrom(spec.getEffectClass())) continue;
+            for (EffectSpec.Binding binding : spec.getBindings()) {
+                if (binding.isSlot() || !binding.getFieldName().equals("fileName") || !(binding.getValue() instanceof String)) continue;
+
+                String fileName = (String) binding.getValue();
+                if (images.containsKey(fileName)) continue;
+                effectManager.preloadImage(fileName);
+                BufferedImage[] frames = effectManager.getCachedImages(fileName);
+                File imageFile = ImageLoadTask.getImageFile(effectManager, fileName);
+                if (frames == null || imageFile == null || !imageFile.isFile()) continue;
+                images.put(fileName, frames);
+                imageFiles.put(fileName, imageFile);
+            }
+        }
+
+        out.writeInt(images.size());
+        for (Map.Entry<String, BufferedImage[]> entry : images.entrySet()) {
+            File imageFile = imageFiles.get(entry.getKey());
+            writeString(out, entry.getKey());
+            out.writeLong(imageFile.length());
+            out.writeLong(imageFile.lastModified());
+            out.writeInt(entry.getValue().length);
+            for (BufferedImage image : entry.getValue()) {
+                int width = image.getWidth();
+                int height = image.getHeight();
+                int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+                out.writeInt(width);
+                out.writeInt(height);
+
+                ByteBuffer pixelBytes = ByteBuffer.allocate(pixels.length * 4);
+                pixelBytes.asIntBuffer().put(pixels);
+                out.write(pixelBytes.array());
+            }
+        }
+    }
+
+    /**
+     * @param hashing write values of any type, only so they change the hash
+     */
+    private static void writeValue(DataOutputStream out, Object value, boolean hashing) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TAG_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TAG_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Short) {
+            out.writeByte(TAG_SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(TAG_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Float) {
+            out.writeByte(TAG_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Character) {
+            out.writeByte(TAG_CHARACTER);
+            out.writeChar((Character) value);
+        } else if (value instanceof String) {
+            out.writeByte(TAG_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Color) {
+            out.writeByte(TAG_COLOR);
+            out.writeInt(((Color) value).asRGB());
+        } else if (value instanceof Vector) {
+            Vector vector = (Vector) value;
+            out.writeByte(TAG_VECTOR);
+            out.writeDouble(vector.getX());
+            out.writeDouble(vector.getY());
+            out.writeDouble(vector.getZ());
+        } else if (value instanceof Enum) {
+            Enum<?> constant = (Enum<?>) value;
+            out.writeByte(TAG_ENUM);
+            writeString(out, constant.getDeclaringClass().getName());
+            writeString(out, constant.name());
+        } else if (value instanceof Font) {
+            Font font = (Font) value;
+            out.writeByte(TAG_FONT);
+            writeString(out, font.getName());
+            out.writeInt(font.getStyle());
+            out.writeFloat(font.getSize2D());
+        } else if (value instanceof CustomSound) {
+            out.writeByte(TAG_SOUND);
+            writeString(out, value.toString());
+        } else if (value instanceof ConfigurationSection) {
+            ConfigurationSection section = (ConfigurationSection) value;
+            out.writeByte(TAG_SECTION);
+            out.writeInt(section.getKeys(false).size());
+            for (String key : section.getKeys(false)) {
+                writeString(out, key);
+                writeValue(out, section.get(key), hashing);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(TAG_MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String) && !hashing) throw new UnsupportedValueException(entry.getKey());
+                writeString(out, String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue(), hashing);
+            }
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(TAG_LIST);
+            out.writeInt(list.size());
+            for (Object item : list) {
+                writeValue(out, item, hashing);
+            }
+        } else if (hashing) {
+            out.writeByte(TAG_OTHER);
+            writeString(out, value.getClass().getName());
+            writeString(out, value.toString());
+        } else {
+            throw new UnsupportedValueException(value);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object readValue(ByteBuffer buffer) throws IOException {
+        byte tag = buffer.get();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_BOOLEAN:
+                return buffer.get() != 0;
+            case TAG_INT:
+                return buffer.getInt();
+            case TAG_LONG:
+                return buffer.getLong();
+            case TAG_SHORT:
+                return buffer.getShort();
+            case TAG_BYTE:
+                return buffer.get();
+            case TAG_FLOAT:
+                return buffer.getFloat();
+            case TAG_DOUBLE:
+                return buffer.getDouble();
+            case TAG_CHARACTER:
+                return buffer.getChar();
+            case TAG_STRING:
+                return readString(buffer);
+            case TAG_COLOR:
+                return Color.fromRGB(buffer.getInt());
+            case TAG_VECTOR:
+                return new Vector(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+            case TAG_ENUM: {
+                String className = readString(buffer);
+                String name = readString(buffer);
+                try {
+                    Class<?> enumClass = Class.forName(className, false, EffectSpecCache.class.getClassLoader());
+                    if (!enumClass.isEnum()) throw new IOException(className + " is not an enum");
+                    return Enum.valueOf((Class<Enum>) enumClass, name);
+                } catch (ClassNotFoundException ex) {
+                    throw new IOException("Unknown enum " + className, ex);
+                }
+            }
+            case TAG_FONT: {
+                String name = readString(buffer);
+                int style = buffer.getInt();
+                return new Font(name, style, 1).deriveFont(buffer.getFloat());
+            }
+            case TAG_SOUND:
+                return new CustomSound(readString(buffer));
+            case TAG_SECTION: {
+                ConfigurationSection section = new MemoryConfiguration();
+                readSection(buffer, section);
+                return section;
+            }
+            case TAG_MAP: {
+                int size = buffer.getInt();
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    String key = readString(buffer);
+                    map.put(key, readValue(buffer));
+                }
+                return map;
+            }
+            case TAG_LIST: {
+                int size = buffer.getInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(buffer));
+                }
+                return list;
+            }
+        }
+        throw new IOException("Invalid value type " + tag);
+    }
+
+    private static void readSection(ByteBuffer buffer, ConfigurationSection section) throws IOException {
+        int size = buffer.getInt();
+        for (int i = 0; i < size; i++) {
+            String key = readString(buffer);
+            if (buffer.get(buffer.position()) == TAG_SECTION) {
+                buffer.get();
+                readSection(buffer, section.createSection(key));
+            } else {
+                section.set(key, readValue(buffer));
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class UnsupportedValueException extends IOException {
+
+        UnsupportedValueException(Object value) {
+            super("can not store a " + value.getClass().getSimpleName());
+        }
+
+    }
+
+}
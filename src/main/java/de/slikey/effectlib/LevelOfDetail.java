@@ -0,0 +1,313 @@
+package de.slikey.effectlib;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Lowers the detail of effects of all {@link EffectManager}s while the server is lagging.
+ *
+ * The time the server spends on each tick is followed, and when it stays above a threshold the level of detail
+ * is lowered a step at a time, and raised again once it has dropped below a second, lower threshold.
+ * Effects apply a changed level at their next iteration: fields marked {@link Scalable} are scaled by it,
+ * and repeating effects marked {@link Effect#cosmetic} run less often. Effects with a priority above 0 are left alone.
+ *
+ * The tick time is read from Paper when available. Other servers only tell how long it has been since the last tick,
+ * which never drops below 50ms, so the default thresholds are raised there to 60ms and 52ms.
+ */
+@SuppressWarnings({"unused"})
+public final class LevelOfDetail {
+
+    private static final double WEIGHT = 0.05;
+
+    private static final LevelOfDetail instance = new LevelOfDetail();
+
+    private final Map<Class<?>, ScalableField[]> scalableFields = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled;
+    private volatile double factor = 1;
+    private volatile double minFactor = 0.25;
+    private volatile double step = 0.1;
+    private volatile int adjustInterval = 40;
+    private double degradeAbove = Double.NaN;
+    private double recoverBelow = Double.NaN;
+    private volatile Plugin owner;
+    private volatile BukkitTask tickTask;
+
+    private Method averageTickTime;
+    private long lastTickNanos;
+    private int ticksSinceAdjust;
+    private volatile double tickInterval = 50;
+    private volatile double tickTime;
+    private volatile long degradations;
+    private volatile long recoveries;
+
+    private LevelOfDetail() {
+    }
+
+    public static LevelOfDetail getInstance() {
+        return instance;
+    }
+
+    /**
+     * Start following the tick time.
+     *
+     * @param plugin the plugin that owns the task measuring ticks, full detail is restored if it is disabled
+     */
+    public synchronized void enable(Plugin plugin) {
+        // A task of a disabled or replaced owner no longer runs, so start a new one
+        if (tickTask != null && (owner != plugin || !plugin.isEnabled() || tickTask.isCancelled())) disable();
+        if (tickTask != null) return;
+
+        try {
+            averageTickTime = Bukkit.getServer().getClass().getMethod("getAverageTickTime");
+        } catch (Exception ex) {
+            averageTickTime = null;
+        }
+        if (Double.isNaN(degradeAbove)) degradeAbove = averageTickTime == null ? 60 : 45;
+        if (Double.isNaN(recoverBelow)) recoverBelow = averageTickTime == null ? 52 : 35;
+
+        lastTickNanos = 0;
+        ticksSinceAdjust = 0;
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
+            @Override
+            public void run() {
+                tick();
+            }
+        }, 1, 1);
+        owner = plugin;
+        enabled = true;
+    }
+
+    public synchronized void disable() {
+        enabled = false;
+        owner = null;
+        if (tickTask != null) tickTask.cancel();
+        tickTask = null;
+        factor = 1;
+    }
+
+    public boolean isEnabled() {
+        return isActive();
+    }
+
+    /**
+     * @return false if not enabled, or if the tick task was cancelled along with its owning plugin
+     */
+    private boolean isActive() {
+        if (!enabled) return false;
+        Plugin plugin = owner;
+        BukkitTask task = tickTask;
+        if (plugin != null && plugin.isEnabled() && task != null && !task.isCancelled()) return true;
+
+        // Nothing would raise the level of detail again, so go back to full detail
+        disable();
+        return false;
+    }
+
+    /**
+     * @param degradeAbove the tick time in milliseconds above which detail is lowered
+     * @param recoverBelow the tick time in milliseconds below which detail is raised again, lower than degradeAbove
+     */
+    public synchronized void setThresholds(double degradeAbove, double recoverBelow) {
+        if (recoverBelow > degradeAbove) throw new IllegalArgumentException("recoverBelow can not be above degradeAbove");
+        this.degradeAbove = degradeAbove;
+        this.recoverBelow = recoverBelow;
+    }
+
+    public double getDegradeAbove() {
+        return degradeAbove;
+    }
+
+    public double getRecoverBelow() {
+        return recoverBelow;
+    }
+
+    /**
+     * @param minFactor the lowest level of detail, between 0 and 1
+     */
+    public void setMinFactor(double minFactor) {
+        this.minFactor = Math.max(0.01, Math.min(1, minFactor));
+    }
+
+    public double getMinFactor() {
+        return minFactor;
+    }
+
+    /**
+     * @param step how much the level of detail changes at once
+     */
+    public void setStep(double step) {
+        this.step = Math.max(0.01, step);
+    }
+
+    public double getStep() {
+        return step;
+    }
+
+    /**
+     * @param adjustInterval the ticks to wait after a change before the level of detail changes again
+     */
+    public void setAdjustInterval(int adjustInterval) {
+        this.adjustInterval = Math.max(1, adjustInterval);
+    }
+
+    public int getAdjustInterval() {
+        return adjustInterval;
+    }
+
+    /**
+     * @return the current level of detail, 1 for full detail
+     */
+    public double getFactor() {
+        double current = factor;
+        if (current < 1 && !isActive()) return 1;
+        return current;
+    }
+
+    /**
+     * @return the tick time in milliseconds the level of detail follows
+     */
+    public double getTickTime() {
+        return tickTime;
+    }
+
+    /**
+     * @return true if the tick time is read from the server, false if it is the time between ticks
+     */
+    public boolean isMeasuringTickTime() {
+        return averageTickTime != null;
+    }
+
+    public long getDegradations() {
+        return degradations;
+    }
+
+    public long getRecoveries() {
+        return recoveries;
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        if (lastTickNanos != 0) tickInterval += ((now - lastTickNanos) / 1000000.0 - tickInterval) * WEIGHT;
+        lastTickNanos = now;
+
+        double current = tickInterval;
+        if (averageTickTime != null) {
+            try {
+                current = ((Number) averageTickTime.invoke(Bukkit.getServer())).doubleValue();
+            } catch (Exception ex) {
+                averageTickTime = null;
+            }
+        }
+        tickTime = current;
+
+        if (++ticksSinceAdjust < adjustInterval) return;
+        if (current > degradeAbove && factor > minFactor) {
+            factor = Math.max(minFactor, factor - step);
+            degradations++;
+            ticksSinceAdjust = 0;
+        } else if (current < recoverBelow && factor < 1) {
+            factor = Math.min(1, factor + step);
+            recoveries++;
+            ticksSinceAdjust = 0;
+        }
+    }
+
+    /**
+     * Scale the {@link Scalable} fields of an effect to a level of detail, remembering their configured values the first time.
+     *
+     * @return the names of the fields that changed
+     */
+    Set<String> apply(Effect effect, double factor) throws IllegalAccessException {
+        ScalableField[] fields = getScalableFields(effect.getClass());
+        if (effect.detailBase == null) {
+            int[] base = new int[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                base[i] = fields[i].field.getInt(effect);
+            }
+            effect.detailBase = base;
+            effect.detailBasePeriod = effect.period;
+        }
+        effect.detailFactor = factor;
+        if (fields.length == 0) return Collections.emptySet();
+
+        Set<String> changed = new HashSet<>();
+        for (int i = 0; i < fields.length; i++) {
+            ScalableField scalable = fields[i];
+            int value = scalable.scale(effect.detailBase[i], factor);
+            if (scalable.field.getInt(effect) == value) continue;
+            scalable.field.setInt(effect, value);
+            changed.add(scalable.field.getName());
+        }
+        return changed;
+    }
+
+    /**
+     * Put back the configured values of an effect's scaled fields and period.
+     */
+    void restore(Effect effect) throws IllegalAccessException {
+        int[] base = effect.detailBase;
+        effect.detailBase = null;
+        effect.detailFactor = 1;
+        if (base == null) return;
+
+        ScalableField[] fields = getScalableFields(effect.getClass());
+        for (int i = 0; i < fields.length; i++) {
+            fields[i].field.setInt(effect, base[i]);
+        }
+        effect.period = effect.detailBasePeriod;
+    }
+
+    private ScalableField[] getScalableFields(Class<?> effectClass) {
+        ScalableField[] fields = scalableFields.get(effectClass);
+        if (fields != null) return fields;
+
+        List<ScalableField> fieldList = new ArrayList<>();
+        Class<?> current = effectClass;
+        while (current != null && current != Object.class) {
+            for (Field field : current.getDeclaredFields()) {
+                Scalable scalable = field.getAnnotation(Scalable.class);
+                if (scalable == null || field.getType() != Integer.TYPE || Modifier.isStatic(field.getModifiers())) continue;
+                field.setAccessible(true);
+                fieldList.add(new ScalableField(field, scalable.inverse(), scalable.min()));
+            }
+            current = current.getSuperclass();
+        }
+
+        fields = fieldList.toArray(new ScalableField[0]);
+        scalableFields.put(effectClass, fields);
+        return fields;
+    }
+
+    private static final class ScalableField {
+
+        private final Field field;
+        private final boolean inverse;
+        private final int min;
+
+        private ScalableField(Field field, boolean inverse, int min) {
+            this.field = field;
+            this.inverse = inverse;
+            this.min = min;
+        }
+
+        private int scale(int base, double factor) {
+            if (factor >= 1 || base < 1 || (!inverse && base <= min)) return base;
+            int value = (int) Math.round(inverse ? base / factor : base * factor);
+            return Math.max(min, value);
+        }
+    }
+
+}
@@ -0,0 +1,317 @@
+package de.slikey.effectlib;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * A per-tick limit on the particles and packets sent by effects of all {@link EffectManager}s.
+ *
+ * Particles are sent as soon as an effect displays them, so the budget for a tick is planned from the demand
+ * in the previous one. When that was over budget, effects either have their particles thinned out evenly, or
+ * their iterations skipped starting with the lowest {@link Effect#priority}, see {@link Shedding}.
+ * Effects with a priority above 0 are never thinned. Once a tick's budget is used up, only those effects can
+ * display any more particles until the next tick.
+ */
+@SuppressWarnings({"unused"})
+public final class ParticleBudget {
+
+    public enum Shedding {
+        /**
+         * Drop an even share of the particles displayed by effects with priority 0 or below.
+         */
+        THIN,
+        /**
+         * Skip whole iterations of the lowest priority effects, keeping those that fit in the budget intact.
+         */
+        SKIP
+    }
+
+    private static final ParticleBudget instance = new ParticleBudget();
+
+    private volatile boolean enabled;
+    private volatile Shedding shedding = Shedding.THIN;
+    private volatile int particleLimit;
+    private volatile int packetLimit;
+    private volatile Plugin owner;
+    private volatile BukkitTask tickTask;
+
+    // Planned at the start of each tick
+    private volatile double keepRatio = 1;
+    private volatile int skipBelowPriority = Integer.MIN_VALUE;
+
+    private final AtomicLong tickRequested = new AtomicLong();
+    private final AtomicLong tickEmitted = new AtomicLong();
+    private final AtomicLong tickPackets = new AtomicLong();
+    private final AtomicLong tickExemptRequested = new AtomicLong();
+    private final AtomicLong thinCalls = new AtomicLong();
+    private final Map<Integer, AtomicLong> tickPriorityDemand = new ConcurrentHashMap<>();
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong emitted = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong packets = new AtomicLong();
+    private final AtomicLong skippedIterations = new AtomicLong();
+    private volatile long lastTickRequested;
+    private volatile long lastTickEmitted;
+    private volatile long lastTickPackets;
+
+    private ParticleBudget() {
+    }
+
+    public static ParticleBudget getInstance() {
+        return instance;
+    }
+
+    /**
+     * Start enforcing the budget.
+     *
+     * @param plugin the plugin that owns the task tracking ticks, the budget is lifted if it is disabled
+     * @param particleLimit particles per tick, 0 for no limit
+     * @param packetLimit particle packets per tick, 0 for no limit. Each player a particle is sent to is one packet.
+     */
+    public synchronized void enable(Plugin plugin, int particleLimit, int packetLimit) {
+        this.particleLimit = Math.max(0, particleLimit);
+        this.packetLimit = Math.max(0, packetLimit);
+        // A task of a disabled or replaced owner no longer runs, so start a new one
+        if (tickTask != null && (owner != plugin || !plugin.isEnabled() || tickTask.isCancelled())) disable();
+        if (tickTask != null) return;
+
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
+            @Override
+            public void run() {
+                nextTick();
+            }
+        }, 1, 1);
+        owner = plugin;
+        enabled = true;
+    }
+
+    public synchronized void disable() {
+        enabled = false;
+        owner = null;
+        if (tickTask != null) tickTask.cancel();
+        tickTask = null;
+        keepRatio = 1;
+        skipBelowPriority = Integer.MIN_VALUE;
+    }
+
+    public boolean isEnabled() {
+        return isActive();
+    }
+
+    /**
+     * @return false if not enabled, or if the tick task was cancelled along with its owning plugin
+     */
+    private boolean isActive() {
+        if (!enabled) return false;
+        Plugin plugin = owner;
+        BukkitTask task = tickTask;
+        if (plugin != null && plugin.isEnabled() && task != null && !task.isCancelled()) return true;
+
+        // Without the tick task the tick would never end, so stop limiting rather than drop every particle
+        disable();
+        return false;
+    }
+
+    public void setShedding(Shedding shedding) {
+        this.shedding = shedding;
+    }
+
+    public Shedding getShedding() {
+        return shedding;
+    }
+
+    public void setParticleLimit(int particleLimit) {
+        this.particleLimit = Math.max(0, particleLimit);
+    }
+
+    public int getParticleLimit() {
+        return particleLimit;
+    }
+
+    public void setPacketLimit(int packetLimit) {
+        this.packetLimit = Math.max(0, packetLimit);
+    }
+
+    public int getPacketLimit() {
+        return packetLimit;
+    }
+
+    private void nextTick() {
+        long requestedNow = tickRequested.getAndSet(0);
+        long exemptNow = tickExemptRequested.getAndSet(0);
+        long packetsNow = tickPackets.getAndSet(0);
+        long emittedNow = tickEmitted.getAndSet(0);
+        lastTickRequested = requestedNow;
+        lastTickEmitted = emittedNow;
+        lastTickPackets = packetsNow;
+        thinCalls.set(0);
+
+        TreeMap<Integer, Long> demand = new TreeMap<>();
+        for (Map.Entry<Integer, AtomicLong> entry : tickPriorityDemand.entrySet()) {
+            long priorityDemand = entry.getValue().getAndSet(0);
+            if (priorityDemand > 0) demand.put(entry.getKey(), priorityDemand);
+        }
+
+        // How much of last tick's demand would have fit, counting particles and packets
+        double ratio = 1;
+        if (particleLimit > 0 && requestedNow > particleLimit) ratio = (double) particleLimit / requestedNow;
+        if (packetLimit > 0 && emittedNow > 0) {
+            // Only sent packets are counted, scale them up to what all requested particles would have needed
+            double packetDemand = (double) packetsNow * requestedNow / emittedNow;
+            if (packetDemand > packetLimit) ratio = Math.min(ratio, packetLimit / packetDemand);
+        }
+
+        if (ratio >= 1) {
+            keepRatio = 1;
+            skipBelowPriority = Integer.MIN_VALUE;
+            return;
+        }
+
+        long allowed = (long) (requestedNow * ratio);
+        if (shedding == Shedding.THIN) {
+            long thinnable = requestedNow - exemptNow;
+            keepRatio = thinnable <= 0 ? 1 : Math.max(0, Math.min(1, (double) (allowed - exemptNow) / thinnable));
+            skipBelowPriority = Integer.MIN_VALUE;
+            return;
+        }
+
+        // Keep the highest priorities that fit, from the top down
+        keepRatio = 1;
+        int cutoff = Integer.MAX_VALUE;
+        long kept = 0;
+        for (Map.Entry<Integer, Long> entry : demand.descendingMap().entrySet()) {
+            if (kept + entry.getValue() > allowed && cutoff != Integer.MAX_VALUE) break;
+            kept += entry.getValue();
+            cutoff = entry.getKey();
+        }
+        skipBelowPriority = cutoff;
+    }
+
+    /**
+     * Check whether an effect should run this iteration.
+     *
+     * @param expectedParticles the particles the effect displayed on its last run
+     */
+    boolean shouldRun(Effect effect, int expectedParticles) {
+        if (effect.priority >= skipBelowPriority || !isActive()) return true;
+
+        // Still count what the effect would have displayed, so it stays skipped while the load lasts
+        addDemand(effect.priority, expectedParticles);
+        requested.addAndGet(expectedParticles);
+        shed.addAndGet(expectedParticles);
+        skippedIterations.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Check whether a particle display call may be sent.
+     *
+     * @param amount the particle amount of the call
+     */
+    boolean allow(int priority, int amount) {
+        if (!isActive()) return true;
+
+        int count = Math.max(1, amount);
+        addDemand(priority, count);
+        requested.addAndGet(count);
+        boolean exempt = priority > 0;
+        if (exempt) tickExemptRequested.addAndGet(count);
+
+        boolean keep = exempt || !isTickFull();
+        if (keep && !exempt && keepRatio < 1) {
+            // Keep an even share of calls without any shared state other than a counter
+            long call = thinCalls.getAndIncrement();
+            keep = (long) ((call + 1) * keepRatio) != (long) (call * keepRatio);
+        }
+
+        if (keep) {
+            tickEmitted.addAndGet(count);
+            emitted.addAndGet(count);
+        } else {
+            shed.addAndGet(count);
+        }
+        return keep;
+    }
+
+    /**
+     * Count particle packets sent by a {@link de.slikey.effectlib.util.ParticleDisplay}.
+     */
+    public void recordPackets(int count) {
+        if (count == 0 || !isActive()) return;
+        tickPackets.addAndGet(count);
+        packets.addAndGet(count);
+    }
+
+    private boolean isTickFull() {
+        return (particleLimit > 0 && tickEmitted.get() >= particleLimit) || (packetLimit > 0 && tickPackets.get() >= packetLimit);
+    }
+
+    private void addDemand(int priority, int count) {
+        tickRequested.addAndGet(count);
+        AtomicLong demand = tickPriorityDemand.get(priority);
+        if (demand == null) {
+            AtomicLong newDemand = new AtomicLong();
+            demand = tickPriorityDemand.putIfAbsent(priority, newDemand);
+            if (demand == null) demand = newDemand;
+        }
+        demand.addAndGet(count);
+    }
+
+    /**
+     * @return the particles effects tried to display since the counters were reset, including skipped iterations
+     */
+    public long getRequested() {
+        return requested.get();
+    }
+
+    public long getEmitted() {
+        return emitted.get();
+    }
+
+    public long getShed() {
+        return shed.get();
+    }
+
+    public long getPackets() {
+        return packets.get();
+    }
+
+    public long getSkippedIterations() {
+        return skippedIterations.get();
+    }
+
+    public long getLastTickRequested() {
+        return lastTickRequested;
+    }
+
+    public long getLastTickEmitted() {
+        return lastTickEmitted;
+    }
+
+    public long getLastTickPackets() {
+        return lastTickPackets;
+    }
+
+    /**
+     * @return the share of thinnable particles kept this tick
+     */
+    public double getKeepRatio() {
+        return keepRatio;
+    }
+
+    public void resetCounters() {
+        requested.set(0);
+        emitted.set(0);
+        shed.set(0);
+        packets.set(0);
+        skippedIterations.set(0);
+    }
+
+}
@@ -0,0 +1,186 @@
+package de.slikey.effectlib;
+
+import org.bukkit.Color;
+import org.bukkit.World;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.Material;
+
+import de.slikey.effectlib.util.DynamicLocation;
+import de.slikey.effectlib.util.ParticleOptions;
+
+/**
+ * Particles displayed by an effect in one iteration that are sent as a single call, see
+ * {@link de.slikey.effectlib.util.ParticleClustering}.
+ */
+final class ParticleCluster {
+
+    // Particles with an amount of 0 are only combined when this close, they can't be spread out
+    private static final double EXACT_SIZE = 0.001;
+
+    private final Particle particle;
+    private final ParticleOptions options;
+    private final Location first;
+    private int count;
+    private int amount;
+    private double sumX;
+    private double sumY;
+    private double sumZ;
+    private double sumSquaresX;
+    private double sumSquaresY;
+    private double sumSquaresZ;
+    private boolean moved;
+
+    ParticleCluster(Particle particle, ParticleOptions options, Location location) {
+        this.particle = particle;
+        this.options = options;
+        first = location.clone();
+    }
+
+    void add(Location location, int particleAmount) {
+        double x = location.getX();
+        double y = location.getY();
+        double z = location.getZ();
+        if (!moved && (x != first.getX() || y != first.getY() || z != first.getZ())) moved = true;
+
+        count++;
+        amount += particleAmount;
+        sumX += x;
+        sumY += y;
+        sumZ += z;
+        sumSquaresX += x * x;
+        sumSquaresY += y * y;
+        sumSquaresZ += z * z;
+    }
+
+    Particle getParticle() {
+        return particle;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * @return true if every particle in this cluster was at the same position
+     */
+    boolean isDuplicate() {
+        return !moved;
+    }
+
+    /**
+     * @return the options for one call showing all of this cluster's particles
+     */
+    ParticleOptions getOptions() {
+        if (count == 1 || !moved || options.amount == 0) return options;
+
+        options.amount = amount;
+        options.offsetX = (float) Math.max(options.offsetX, getDeviation(sumX, sumSquaresX));
+        options.offsetY = (float) Math.max(options.offsetY, getDeviation(sumY, sumSquaresY));
+        options.offsetZ = (float) Math.max(options.offsetZ, getDeviation(sumZ, sumSquaresZ));
+        return options;
+    }
+
+    Location getLocation() {
+        if (!moved || options.amount == 0) return first;
+        Location center = first.clone();
+        center.setX(sumX / count);
+        center.setY(sumY / count);
+        center.setZ(sumZ / count);
+        return center;
+    }
+
+    private double getDeviation(double sum, double sumSquares) {
+        double mean = sum / count;
+        return Math.sqrt(Math.max(0, sumSquares / count - mean * mean));
+    }
+
+    static Key getKey(Particle particle, ParticleOptions options, Location location, double voxelSize) {
+        double size = options.amount == 0 ? EXACT_SIZE : voxelSize;
+        return new Key(particle, options, location.getWorld(), (long) Math.floor(location.getX() / size),
+            (long) Math.floor(location.getY() / size), (long) Math.floor(location.getZ() / size));
+    }
+
+    /**
+     * A voxel and everything that decides how a particle looks.
+     */
+    static final class Key {
+
+        private final Particle particle;
+        private final World world;
+        private final long x;
+        private final long y;
+        private final long z;
+        private final Color color;
+        private final Color toColor;
+        private final float speed;
+        private final float offsetX;
+        private final float offsetY;
+        private final float offsetZ;
+        private final boolean spread;
+        private final float size;
+        private final Material material;
+        private final byte materialData;
+        private final String blockData;
+        private final long blockDuration;
+        private final int arrivalTime;
+        private final int shriekDelay;
+        private final float sculkChargeRotation;
+        private final DynamicLocation target;
+        private final int hash;
+
+        private Key(Particle particle, ParticleOptions options, World world, long x, long y, long z) {
+            this.particle = particle;
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            color = options.color;
+            toColor = options.toColor;
+            speed = options.speed;
+            offsetX = options.offsetX;
+            offsetY = options.offsetY;
+            offsetZ = options.offsetZ;
+            spread = options.amount != 0;
+            size = options.size;
+            material = options.material;
+            materialData = options.materialData;
+            blockData = options.blockData;
+            blockDuration = options.blockDuration;
+            arrivalTime = options.arrivalTime;
+            shriekDelay = options.shriekDelay;
+            sculkChargeRotation = options.sculkChargeRotation;
+            target = options.target;
+
+            int result = particle == null ? 0 : particle.hashCode();
+            result = 31 * result + (int) (x ^ (x >>> 32));
+            result = 31 * result + (int) (y ^ (y >>> 32));
+            result = 31 * result + (int) (z ^ (z >>> 32));
+            result = 31 * result + (color == null ? 0 : color.hashCode());
+            hash = result;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) return true;
+            if (!(other instanceof Key)) return false;
+            Key key = (Key) other;
+            return hash == key.hash && x == key.x && y == key.y && z == key.z && particle == key.particle && world == key.world
+                && speed == key.speed && offsetX == key.offsetX && offsetY == key.offsetY && offsetZ == key.offsetZ
+                && spread == key.spread && size == key.size && material == key.material && materialData == key.materialData
+                && blockDuration == key.blockDuration && arrivalTime == key.arrivalTime && shriekDelay == key.shriekDelay
+                && sculkChargeRotation == key.sculkChargeRotation && target == key.target
+                && equal(color, key.color) && equal(toColor, key.toColor) && equal(blockData, key.blockData);
+        }
+
+        private static boolean equal(Object a, Object b) {
+            return a == null ? b == null : a.equals(b);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
@@ -0,0 +1,326 @@
+package de.slikey.effectlib;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * A limit on the particles each player receives from effects of all {@link EffectManager}s, as a token bucket per player.
+ *
+ * A player can receive up to a number of particles per tick, and on average a number per second with bursts up to
+ * that many. When the particles sent to a player in the previous tick were over what the bucket allows, an even share
+ * of every effect's particles is dropped, so each effect shown to the player keeps the same part of its particles.
+ * Effects with a {@link Effect#priority} above 0 are never thinned, but their particles use up the player's tokens.
+ *
+ * Rates can be given per permission, the first permission a player has in the order they were added decides their rate.
+ */
+@SuppressWarnings({"unused"})
+public final class PlayerParticleLimit {
+
+    // How often permissions are checked again and buckets of players who left are removed
+    private static final int REFRESH_TICKS = 100;
+
+    private static final PlayerParticleLimit instance = new PlayerParticleLimit();
+
+    private final ConcurrentHashMap<UUID, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, int[]> groupRates = new LinkedHashMap<>();
+    private volatile boolean enabled;
+    private volatile int perTick = 200;
+    private volatile int perSecond = 2000;
+    private volatile Plugin owner;
+    private volatile BukkitTask tickTask;
+    private int ticks;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong limited = new AtomicLong();
+    private volatile int limitedPlayers;
+
+    private PlayerParticleLimit() {
+    }
+
+    public static PlayerParticleLimit getInstance() {
+        return instance;
+    }
+
+    /**
+     * Start limiting the particles sent to each player.
+     *
+     * @param plugin the plugin that owns the task refilling the buckets, the limit is lifted if it is disabled
+     */
+    public synchronized void enable(Plugin plugin) {
+        // A task of a disabled or replaced owner no longer runs, so start a new one
+        if (tickTask != null && (owner != plugin || !plugin.isEnabled() || tickTask.isCancelled())) disable();
+        if (tickTask != null) return;
+
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
+            @Override
+            public void run() {
+                nextTick();
+            }
+        }, 1, 1);
+        owner = plugin;
+        enabled = true;
+    }
+
+    public synchronized void disable() {
+        enabled = false;
+        owner = null;
+        if (tickTask != null) tickTask.cancel();
+        tickTask = null;
+        buckets.clear();
+    }
+
+    public boolean isEnabled() {
+        return isActive();
+    }
+
+    /**
+     * @return false if not enabled, or if the refill task was cancelled along with its owning plugin
+     */
+    private boolean isActive() {
+        if (!enabled) return false;
+        Plugin plugin = owner;
+        BukkitTask task = tickTask;
+        if (plugin != null && plugin.isEnabled() && task != null && !task.isCancelled()) return true;
+
+        // Without the refill task the buckets would run dry for good, so stop limiting rather than drop every particle
+        disable();
+        return false;
+    }
+
+    /**
+     * Set the rate of players without any of the group permissions.
+     *
+     * @param perTick particles per tick, 0 for no limit
+     * @param perSecond particles per second, 0 for no limit
+     */
+    public void setDefaultRate(int perTick, int perSecond) {
+        this.perTick = Math.max(0, perTick);
+        this.perSecond = Math.max(0, perSecond);
+        refreshRates();
+    }
+
+    public int getDefaultPerTick() {
+        return perTick;
+    }
+
+    public int getDefaultPerSecond() {
+        return perSecond;
+    }
+
+    /**
+     * Set the rate of players with a permission, such as a permission every member of a group has.
+     */
+    public void setGroupRate(String permission, int perTick, int perSecond) {
+        synchronized (groupRates) {
+            groupRates.put(permission, new int[] { Math.max(0, perTick), Math.max(0, perSecond) });
+        }
+        refreshRates();
+    }
+
+    public void removeGroupRate(String permission) {
+        synchronized (groupRates) {
+            groupRates.remove(permission);
+        }
+        refreshRates();
+    }
+
+    private void refreshRates() {
+        for (Bucket bucket : buckets.values()) {
+            bucket.refresh = true;
+        }
+    }
+
+    private void nextTick() {
+        boolean refresh = ++ticks % REFRESH_TICKS == 0;
+        int limitedNow = 0;
+
+        Iterator<Map.Entry<UUID, Bucket>> iterator = buckets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, Bucket> entry = iterator.next();
+            Bucket bucket = entry.getValue();
+            if (refresh || bucket.refresh) {
+                Player player = Bukkit.getPlayer(entry.getKey());
+                if (player == null) {
+                    iterator.remove();
+                    continue;
+                }
+                setRate(bucket, player);
+            }
+            if (bucket.nextTick()) limitedNow++;
+        }
+        limitedPlayers = limitedNow;
+    }
+
+    private void setRate(Bucket bucket, Player player) {
+        int[] rate = null;
+        synchronized (groupRates) {
+            for (Map.Entry<String, int[]> entry : groupRates.entrySet()) {
+                if (!player.hasPermission(entry.getKey())) continue;
+                rate = entry.getValue();
+                break;
+            }
+        }
+        synchronized (bucket) {
+            bucket.perTick = rate == null ? perTick : rate[0];
+            bucket.perSecond = rate == null ? perSecond : rate[1];
+            bucket.refresh = false;
+        }
+    }
+
+    /**
+     * Check whether a particle display call may be sent to a player, used by {@link de.slikey.effectlib.util.ParticleDisplay}.
+     *
+     * @param amount the particle amount of the call
+     */
+    public boolean allow(Player player, int priority, int amount) {
+        if (!isActive()) return true;
+
+        Bucket bucket = buckets.get(player.getUniqueId());
+        if (bucket == null) {
+            // Permissions are checked on the main thread at the next tick
+            Bucket newBucket = new Bucket(perTick, perSecond);
+            bucket = buckets.putIfAbsent(player.getUniqueId(), newBucket);
+            if (bucket == null) bucket = newBucket;
+        }
+
+        int count = Math.max(1, amount);
+        boolean keep = bucket.allow(priority > 0, count);
+        if (keep) sent.addAndGet(count);
+        else limited.addAndGet(count);
+        return keep;
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    public long getLimited() {
+        return limited.get();
+    }
+
+    /**
+     * @return the number of players who were sent fewer particles than effects displayed to them in the last tick
+     */
+    public int getLimitedPlayers() {
+        return limitedPlayers;
+    }
+
+    /**
+     * @return the particles not sent to a player since they joined or the counters were reset
+     */
+    public long getLimited(Player player) {
+        Bucket bucket = buckets.get(player.getUniqueId());
+        return bucket == null ? 0 : bucket.limited;
+    }
+
+    public long getSent(Player player) {
+        Bucket bucket = buckets.get(player.getUniqueId());
+        return bucket == null ? 0 : bucket.sent;
+    }
+
+    /**
+     * @return the share of a player's thinnable particles kept this tick
+     */
+    public double getKeepRatio(Player player) {
+        Bucket bucket = buckets.get(player.getUniqueId());
+        return bucket == null ? 1 : bucket.keepRatio;
+    }
+
+    public void resetCounters() {
+        sent.set(0);
+        limited.set(0);
+        for (Bucket bucket : buckets.values()) {
+            synchronized (bucket) {
+                bucket.sent = 0;
+                bucket.limited = 0;
+            }
+        }
+    }
+
+    private static final class Bucket {
+
+        private volatile boolean refresh = true;
+        private int perTick;
+        private int perSecond;
+        private double tokens;
+        private int tickUsed;
+        private int tickDemand;
+        private int tickExemptDemand;
+        private boolean tickLimited;
+        private long thinCalls;
+        private volatile double keepRatio = 1;
+        private volatile long sent;
+        private volatile long limited;
+
+        private Bucket(int perTick, int perSecond) {
+            this.perTick = perTick;
+            this.perSecond = perSecond;
+            tokens = perSecond;
+        }
+
+        /**
+         * Refill the bucket and plan how much of each effect to keep from last tick's demand.
+         *
+         * @return true if particles were dropped in the last tick
+         */
+        private synchronized boolean nextTick() {
+            boolean wasLimited = tickLimited;
+            if (perSecond > 0) tokens = Math.min(perSecond, tokens + perSecond / 20.0);
+
+            double available = Double.MAX_VALUE;
+            if (perTick > 0) available = perTick;
+            if (perSecond > 0) available = Math.min(available, tokens);
+
+            int thinnable = tickDemand - tickExemptDemand;
+            if (thinnable <= 0 || tickDemand <= available) keepRatio = 1;
+            else keepRatio = Math.max(0, Math.min(1, (available - tickExemptDemand) / thinnable));
+
+            tickUsed = 0;
+            tickDemand = 0;
+            tickExemptDemand = 0;
+            tickLimited = false;
+            thinCalls = 0;
+            return wasLimited;
+        }
+
+        private synchronized boolean allow(boolean exempt, int count) {
+            tickDemand += count;
+            if (exempt) {
+                tickExemptDemand += count;
+                use(count);
+                return true;
+            }
+
+            boolean keep = (perTick <= 0 || tickUsed + count <= perTick) && (perSecond <= 0 || tokens >= count);
+            if (keep && keepRatio < 1) {
+                // Keep an even share of calls, whichever effects they come from
+                long call = thinCalls++;
+                keep = (long) ((call + 1) * keepRatio) != (long) (call * keepRatio);
+            }
+
+            if (keep) {
+                use(count);
+            } else {
+                tickLimited = true;
+                limited += count;
+            }
+            return keep;
+        }
+
+        private void use(int count) {
+            tickUsed += count;
+            if (perSecond > 0) tokens = Math.max(0, tokens - count);
+            sent += count;
+        }
+    }
+
+}
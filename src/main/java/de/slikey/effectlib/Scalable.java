@@ -0,0 +1,28 @@
+package de.slikey.effectlib;
+
+import java.lang.annotation.Target;
+import java.lang.annotation.Retention;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Marks an int field of an effect that only sets how densely it is drawn, so {@link LevelOfDetail} may scale it
+ * down under load without changing the effect's shape or timing.
+ *
+ * Effects that build geometry from a scaled field are told through {@link Effect#onReload(java.util.Set)}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Scalable {
+
+    /**
+     * Set for step sizes, which are divided by the level of detail instead of multiplied.
+     */
+    boolean inverse() default false;
+
+    /**
+     * The lowest value the field is scaled to. Configured values at or below this are not scaled down.
+     */
+    int min() default 1;
+
+}
@@ -0,0 +1,32 @@
+package de.slikey.effectlib.binder;
+
+import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.EffectManager;
+
+/**
+ * Creates one Effect class and accesses its public fields without reflection.
+ *
+ * Binders for the built-in effects are generated at compile time, see {@link EffectBinders}.
+ * Plugins may register their own for custom effects.
+ */
+public interface EffectBinder {
+
+    Class<? extends Effect> getEffectClass();
+
+    Effect create(EffectManager effectManager);
+
+    /**
+     * @return the type of the named public field, or null if there is no such field
+     */
+    Class<?> getFieldType(String field);
+
+    Object get(Effect effect, String field);
+
+    /**
+     * Assign a field, the value must already be of the field's (boxed) type.
+     *
+     * @return false if there is no such field, or it can not be assigned
+     */
+    boolean set(Effect effect, String field, Object value);
+
+}
@@ -0,0 +1,52 @@
+package de.slikey.effectlib.binder;
+
+import java.util.Map;
+import java.util.Collection;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.slikey.effectlib.Effect;
+
+/**
+ * Registry of {@link EffectBinder}s, by Effect class.
+ *
+ * The binders for the built-in effects are listed in GeneratedEffectBinders, which the
+ * annotation processor in src/processor writes at compile time. If that class is missing,
+ * for instance when building without annotation processing, EffectManager falls back to reflection.
+ */
+@SuppressWarnings({"unused"})
+public class EffectBinders {
+
+    private static final String INDEX_CLASS = "de.slikey.effectlib.binder.GeneratedEffectBinders";
+    private static final Map<Class<?>, EffectBinder> binders = new ConcurrentHashMap<>();
+
+    static {
+        try {
+            Class<?> indexClass = Class.forName(INDEX_CLASS);
+            for (EffectBinder binder : (EffectBinder[]) indexClass.getMethod("getBinders").invoke(null)) {
+                register(binder);
+            }
+        } catch (ClassNotFoundException ex) {
+            // Built without the annotation processor
+        } catch (Throwable ex) {
+            Logger.getLogger("EffectLib").log(Level.WARNING, "Could not load generated effect binders, using reflection", ex);
+        }
+    }
+
+    public static void register(EffectBinder binder) {
+        binders.put(binder.getEffectClass(), binder);
+    }
+
+    /**
+     * @return the binder for exactly this class, or null if it has to be accessed using reflection
+     */
+    public static EffectBinder getBinder(Class<?> effectClass) {
+        return binders.get(effectClass);
+    }
+
+    public static Collection<EffectBinder> getBinders() {
+        return binders.values();
+    }
+
+}
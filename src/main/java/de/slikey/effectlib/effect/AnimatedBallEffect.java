@@ -77,20 +77,21 @@ public class AnimatedBallEffect extends Effect {
             return;
         }
 
-        float t;
-        float r;
-        float s;
+        double t;
+        double r;
+        double s;
 
         for (int i = 0; i < particlesPerIteration; i++) {
             step++;
 
-            t = (MathUtils.PI / particles) * step;
-            r = MathUtils.sin(t) * size;
-            s = 2 * MathUtils.PI * t;
+            // Use the double precision trig here, step grows without bound for infinite effects
+            t = (Math.PI / particles) * step;
+            r = MathUtils.fastSin(t) * size;
+            s = 2 * Math.PI * t;
 
-            vector.setX(xFactor * r * MathUtils.cos(s) + xOffset);
-            vector.setZ(zFactor * r * MathUtils.sin(s) + zOffset);
-            vector.setY(yFactor * size * MathUtils.cos(t) + yOffset);
+            vector.setX(xFactor * r * MathUtils.fastCos(s) + xOffset);
+            vector.setZ(zFactor * r * MathUtils.fastSin(s) + zOffset);
+            vector.setY(yFactor * size * MathUtils.fastCos(t) + yOffset);
 
             VectorUtils.rotateVector(vector, xRotation, yRotation, zRotation);
 
@@ -99,4 +100,9 @@ public class AnimatedBallEffect extends Effect {
         }
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        step += particlesPerIteration * iterations;
+    }
+
 }
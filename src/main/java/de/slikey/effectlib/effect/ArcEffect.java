@@ -5,6 +5,7 @@ import org.bukkit.Location;
 import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 
@@ -19,6 +20,7 @@ public class ArcEffect extends Effect {
     /**
      * Particles per arc
      */
+    @Scalable
     public int particles = 100;
 
     /**
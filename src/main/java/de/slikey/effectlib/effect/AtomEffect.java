@@ -8,6 +8,7 @@ import org.bukkit.util.Vector;
 import de.slikey.effectlib.Effect;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
+import de.slikey.effectlib.util.MathUtils;
 import de.slikey.effectlib.util.RandomUtils;
 import de.slikey.effectlib.util.VectorUtils;
 
@@ -98,7 +99,7 @@ public class AtomEffect extends Effect {
 
         for (int i = 0; i < particlesNucleus; i++) {
             v = RandomUtils.getRandomVector().multiply(radius * radiusNucleus);
-            if (orient) v = VectorUtils.rotateVector(v, location);
+            if (orient) v = getOrientation().rotate(v);
 
             location.add(v);
             display(particleNucleus, location, colorNucleus);
@@ -109,11 +110,11 @@ public class AtomEffect extends Effect {
             angle = step * angularVelocity;
             for (int j = 0; j < orbitals; j++) {
                 xRotation = (Math.PI / orbitals) * j;
-                v = new Vector(Math.cos(angle), Math.sin(angle), 0).multiply(radius);
+                v = new Vector(MathUtils.fastCos(angle), MathUtils.fastSin(angle), 0).multiply(radius);
 
                 VectorUtils.rotateAroundAxisX(v, xRotation);
                 VectorUtils.rotateAroundAxisY(v, rotation);
-                if (orient) v = VectorUtils.rotateVector(v, location);
+                if (orient) v = getOrientation().rotate(v);
 
                 location.add(v);
                 display(particleOrbital, location, colorOrbital);
@@ -123,4 +124,9 @@ public class AtomEffect extends Effect {
         }
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        step += particlesOrbital * iterations;
+    }
+
 }
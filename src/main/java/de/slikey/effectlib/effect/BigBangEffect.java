@@ -32,6 +32,7 @@ public class BigBangEffect extends Effect {
     protected int step = 0;
 
     protected FireworkEffect firework;
+    protected double[] vectors;
 
     public BigBangEffect(EffectManager effectManager) {
         super(effectManager);
@@ -50,7 +51,7 @@ public class BigBangEffect extends Effect {
     @Override
     public void onRun() {
         Location location = getLocation();
-        Vector v;
+        Vector v = new Vector();
 
         if (location == null || location.getWorld() == null) {
             cancel();
@@ -65,8 +66,10 @@ public class BigBangEffect extends Effect {
             firework = b.build();
         }
 
-        for (int i = 0; i < explosions; i++) {
-            v = RandomUtils.getRandomVector().multiply(radius);
+        vectors = RandomUtils.ensureCapacity(vectors, explosions * 3);
+        RandomUtils.getRandomVectors(vectors, explosions);
+        for (int i = 0, j = 0; i < explosions; i++, j += 3) {
+            v.setX(vectors[j] * radius).setY(vectors[j + 1] * radius).setZ(vectors[j + 2] * radius);
             detonate(location, v);
             if (soundInterval != 0 && step % soundInterval == 0) {
                 location.getWorld().playSound(location, sound, soundVolume, soundPitch);
@@ -75,6 +78,11 @@ public class BigBangEffect extends Effect {
         step++;
     }
 
+    @Override
+    protected boolean canBeDormant() {
+        return false;
+    }
+
     protected void detonate(Location location, Vector v) {
         if (location != null && location.getWorld() != null) {
             final Firework firework = (Firework) location.getWorld().spawnEntity(location.add(v), EntityType.FIREWORK);
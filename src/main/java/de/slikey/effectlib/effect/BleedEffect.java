@@ -51,4 +51,9 @@ public class BleedEffect extends de.slikey.effectlib.Effect {
         if (hurt && entity != null) entity.playEffect(org.bukkit.EntityEffect.HURT);
     }
 
+    @Override
+    protected boolean canBeDormant() {
+        return false;
+    }
+
 }
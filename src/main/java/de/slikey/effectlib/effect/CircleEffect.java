@@ -112,8 +112,8 @@ public class CircleEffect extends Effect {
             angle = step * inc;
             v = new Vector();
 
-            v.setX(Math.cos(angle) * radius);
-            v.setZ(Math.sin(angle) * radius);
+            v.setX(MathUtils.fastCos(angle) * radius);
+            v.setZ(MathUtils.fastSin(angle) * radius);
 
             VectorUtils.rotateVector(v, xRotation, yRotation, zRotation);
             VectorUtils.rotateAroundAxisX(v, location.getPitch() * MathUtils.degreesToRadians);
@@ -123,7 +123,7 @@ public class CircleEffect extends Effect {
                 VectorUtils.rotateVector(v, angularVelocityX * step, angularVelocityY * step, angularVelocityZ * step);
             }
 
-            if (orient) v = VectorUtils.rotateVector(v, location);
+            if (orient) v = getOrientation().rotate(v);
 
             display(particle, location.clone().add(v));
             step++;
@@ -132,4 +132,9 @@ public class CircleEffect extends Effect {
         if (resetCircle) step = 0;
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        if (!resetCircle) step += (wholeCircle ? particles : 1) * iterations;
+    }
+
 }
@@ -3,9 +3,9 @@ package de.slikey.effectlib.effect;
 import org.bukkit.Color;
 import org.bukkit.Location;
 import org.bukkit.Particle;
-import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.util.RandomUtils;
@@ -19,12 +19,14 @@ public class CloudEffect extends Effect {
     public Particle cloudParticle = Particle.CLOUD;
     public Color cloudColor = null;
     public float cloudSpeed = 0;
+    @Scalable
     public int cloudParticles = 50;
 
     /**
      * Particle of the rain/snow
      */
     public Particle mainParticle = Particle.DRIP_WATER;
+    @Scalable
     public int mainParticles = 15;
 
     /**
@@ -45,6 +47,8 @@ public class CloudEffect extends Effect {
     // Should the effect increase its height every iteration?
     public boolean increaseHeight = true;
 
+    protected double[] vectors;
+
     public CloudEffect(EffectManager manager) {
         super(manager);
         type = EffectType.REPEATING;
@@ -63,12 +67,18 @@ public class CloudEffect extends Effect {
 
         location.add(0, yOffset, 0);
 
-        Vector v;
+        double distance;
+        double x;
+        double z;
 
-        for (int i = 0; i < cloudParticles; i++) {
-            v = RandomUtils.getRandomCircleVector().multiply(RandomUtils.random.nextDouble() * cloudSize);
-            display(cloudParticle, location.add(v), cloudColor, cloudSpeed, 1);
-            location.subtract(v);
+        vectors = RandomUtils.ensureCapacity(vectors, cloudParticles * 2);
+        RandomUtils.getRandomCircleVectors(vectors, cloudParticles);
+        for (int i = 0, j = 0; i < cloudParticles; i++, j += 2) {
+            distance = RandomUtils.random.nextDouble() * cloudSize;
+            x = vectors[j] * distance;
+            z = vectors[j + 1] * distance;
+            display(cloudParticle, location.add(x, 0, z), cloudColor, cloudSpeed, 1);
+            location.subtract(x, 0, z);
         }
 
         Location l;
@@ -76,8 +86,6 @@ public class CloudEffect extends Effect {
         else l = location;
 
         int r;
-        double x;
-        double z;
 
         for (int i = 0; i < mainParticles; i++) {
             r = RandomUtils.random.nextInt(2);
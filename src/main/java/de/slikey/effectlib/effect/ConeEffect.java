@@ -91,7 +91,7 @@ public class ConeEffect extends Effect {
             radius = step * radiusGrow;
             length = step * lengthGrow;
 
-            v = new Vector(Math.cos(angle) * radius, length, Math.sin(angle) * radius);
+            v = new Vector(MathUtils.fastCos(angle) * radius, length, MathUtils.fastSin(angle) * radius);
             VectorUtils.rotateAroundAxisX(v, (location.getPitch() + 90) * MathUtils.degreesToRadians);
             VectorUtils.rotateAroundAxisY(v, -location.getYaw() * MathUtils.degreesToRadians);
 
@@ -102,4 +102,9 @@ public class ConeEffect extends Effect {
         }
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        step = (int) ((step + (long) particles * iterations) % (particlesCone + 1));
+    }
+
 }
@@ -5,6 +5,7 @@ import org.bukkit.Location;
 import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.util.MathUtils;
@@ -36,6 +37,7 @@ public class CubeEffect extends Effect {
     /**
      * Particles in each row
      */
+    @Scalable
     public int particles = 8;
 
     /**
@@ -81,6 +83,11 @@ public class CubeEffect extends Effect {
         step++;
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        step += iterations;
+    }
+
     private void drawCubeOutline(Location location) {
         double xRotation = 0, yRotation = 0, zRotation = 0;
         if (enableRotation) {
@@ -5,6 +5,7 @@ import org.bukkit.Particle;
 import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 
@@ -14,6 +15,7 @@ public class CuboidEffect extends Effect {
     /**
      * Particles in each row
      */
+    @Scalable
     public int particles = 8;
 
     /**
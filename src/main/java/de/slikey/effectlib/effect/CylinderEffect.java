@@ -145,6 +145,11 @@ public class CylinderEffect extends Effect {
         step++;
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        step += iterations;
+    }
+
     protected void calculateSideRatio() {
         float grounds, side;
         grounds = MathUtils.PI * MathUtils.PI * radius * 2;
@@ -10,6 +10,7 @@ import org.bukkit.Particle;
 import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.util.RandomUtils;
@@ -44,7 +45,9 @@ public class DiscoBallEffect extends Effect {
     /**
      * Max number of particles per line
      */
+    @Scalable
     public int lineParticles = 100;
+    @Scalable
     public int sphereParticles = 50;
 
     /**
@@ -52,6 +55,8 @@ public class DiscoBallEffect extends Effect {
      */
     public Direction direction = Direction.DOWN;
 
+    protected double[] vectors;
+
     public DiscoBallEffect(EffectManager manager) {
         super(manager);
         type = EffectType.REPEATING;
@@ -79,7 +84,6 @@ public class DiscoBallEffect extends Effect {
 
         Vector v;
         Vector link;
-        Vector vector;
 
         float length;
         float ratio;
@@ -108,11 +112,15 @@ public class DiscoBallEffect extends Effect {
         }
 
         //Sphere
-        for (int i = 0; i < sphereParticles; i++) {
-            vector = RandomUtils.getRandomVector().multiply(sphereRadius);
-            location.add(vector);
+        vectors = RandomUtils.ensureCapacity(vectors, sphereParticles * 3);
+        RandomUtils.getRandomVectors(vectors, sphereParticles);
+        for (int i = 0, j = 0; i < sphereParticles; i++, j += 3) {
+            x = vectors[j] * sphereRadius;
+            y = vectors[j + 1] * sphereRadius;
+            z = vectors[j + 2] * sphereRadius;
+            location.add(x, y, z);
             display(sphereParticle, location, sphereColor);
-            location.subtract(vector);
+            location.subtract(x, y, z);
         }
     }
 
@@ -103,7 +103,7 @@ public class DnaEffect extends Effect {
 
             for (int i = 0; i < 2; i++) {
                 angle = step * radials + Math.PI * i;
-                v = new Vector(Math.cos(angle) * radius, step * grow, Math.sin(angle) * radius);
+                v = new Vector(MathUtils.fastCos(angle) * radius, step * grow, MathUtils.fastSin(angle) * radius);
                 drawParticle(location, v, particleHelix, colorHelix);
             }
 
@@ -118,7 +118,7 @@ public class DnaEffect extends Effect {
                         color = colorBase2;
                     }
                     angle = step * radials;
-                    v = new Vector(Math.cos(angle), 0, Math.sin(angle)).multiply(radius * i / particlesBase).setY(step * grow);
+                    v = new Vector(MathUtils.fastCos(angle), 0, MathUtils.fastSin(angle)).multiply(radius * i / particlesBase).setY(step * grow);
                     drawParticle(location, v, particle, color);
                 }
             }
@@ -126,6 +126,29 @@ public class DnaEffect extends Effect {
         }
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        long steps = (long) particlesHelix * iterations;
+        if (steps <= 0) return;
+        if (grow <= 0) {
+            step += steps;
+            return;
+        }
+        if (length < 0) {
+            // Every step starts over
+            step = 1;
+            return;
+        }
+
+        // onRun starts over at 0 once step * grow is past the length, so the last step drawn is the cycle's end
+        int last = (int) (length / grow);
+        while ((last + 1) * grow <= length) last++;
+        while (last > 0 && last * grow > length) last--;
+
+        int start = step * grow > length ? 0 : step;
+        step = (int) ((start + steps - 1) % (last + 1)) + 1;
+    }
+
     protected void drawParticle(Location location, Vector v, Particle particle, Color color) {
         VectorUtils.rotateAroundAxisX(v, (location.getPitch() + 90) * MathUtils.degreesToRadians);
         VectorUtils.rotateAroundAxisY(v, -location.getYaw() * MathUtils.degreesToRadians);
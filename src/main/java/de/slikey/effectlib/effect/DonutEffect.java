@@ -5,6 +5,7 @@ import org.bukkit.Location;
 import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.util.MathUtils;
@@ -16,6 +17,7 @@ public class DonutEffect extends Effect {
     /**
      * Amount of particles inside of a single vertical circle
      */
+    @Scalable
     public int particlesCircle = 10;
 
     /**
@@ -64,10 +66,10 @@ public class DonutEffect extends Effect {
             theta = 2 * Math.PI * i / circles;
             for (int j = 0; j < particlesCircle; j++) {
                 phi = 2 * Math.PI * j / particlesCircle;
-                cosPhi = Math.cos(phi);
-                v.setX((radiusDonut + radiusTube * cosPhi) * Math.cos(theta));
-                v.setY((radiusDonut + radiusTube * cosPhi) * Math.sin(theta));
-                v.setZ(radiusTube * Math.sin(phi));
+                cosPhi = MathUtils.fastCos(phi);
+                v.setX((radiusDonut + radiusTube * cosPhi) * MathUtils.fastCos(theta));
+                v.setY((radiusDonut + radiusTube * cosPhi) * MathUtils.fastSin(theta));
+                v.setZ(radiusTube * MathUtils.fastSin(phi));
 
                 VectorUtils.rotateVector(v, xRotation, yRotation, zRotation);
                 VectorUtils.rotateAroundAxisX(v, (location.getPitch() + 90) * MathUtils.degreesToRadians);
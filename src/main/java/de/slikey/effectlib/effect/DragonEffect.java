@@ -108,4 +108,9 @@ public class DragonEffect extends Effect {
         }
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        step += stepsPerIteration * iterations;
+    }
+
 }
@@ -1,7 +1,10 @@
 package de.slikey.effectlib.effect;
 
 import java.util.Set;
+import java.util.List;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Collections;
 
 import org.bukkit.Color;
 import org.bukkit.Location;
@@ -9,6 +12,7 @@ import org.bukkit.Particle;
 import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.util.MathUtils;
@@ -18,6 +22,8 @@ import de.slikey.effectlib.util.VectorUtils;
 @SuppressWarnings({"unused"})
 public class EarthEffect extends Effect {
 
+    private static final List<String> geometryFields = Arrays.asList("precision", "particles", "radius", "mountainHeight");
+
     public Particle particleLand = Particle.VILLAGER_HAPPY;
     public Particle particleOcean = Particle.DRIP_WATER;
 
@@ -38,6 +44,7 @@ public class EarthEffect extends Effect {
     /**
      * Amount of Particles to form the World
      */
+    @Scalable
     public int particles = 500;
 
     /**
@@ -74,6 +81,11 @@ public class EarthEffect extends Effect {
         firstStep = true;
     }
 
+    @Override
+    protected void onReload(Set<String> changedFields) {
+        if (!Collections.disjoint(changedFields, geometryFields)) firstStep = true;
+    }
+
     public void invalidate() {
         firstStep = false;
         cacheGreen.clear();
@@ -104,10 +116,12 @@ public class EarthEffect extends Effect {
         double r2;
         double r3;
 
-        for (int i = 0; i < precision; i++) {
-            r1 = RandomUtils.getRandomAngle();
-            r2 = RandomUtils.getRandomAngle();
-            r3 = RandomUtils.getRandomAngle();
+        double[] angles = new double[Math.max(0, precision) * 3];
+        RandomUtils.getRandomAngles(angles, precision * 3);
+        for (int i = 0, j = 0; i < precision; i++, j += 3) {
+            r1 = angles[j];
+            r2 = angles[j + 1];
+            r3 = angles[j + 2];
             for (Vector v : cache) {
                 if (v.getY() > 0) v.setY(v.getY() + increase);
                 else v.setY(v.getY() - increase);
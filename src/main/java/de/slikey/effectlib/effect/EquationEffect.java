@@ -1,5 +1,10 @@
 package de.slikey.effectlib.effect;
 
+import java.util.Set;
+import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
+
 import org.bukkit.Location;
 import org.bukkit.Particle;
 import org.bukkit.util.Vector;
@@ -14,6 +19,8 @@ import de.slikey.effectlib.math.EquationTransform;
 @SuppressWarnings({"unused"})
 public class EquationEffect extends Effect {
 
+    private static final List<String> equationFields = Arrays.asList("xEquation", "yEquation", "zEquation", "variable", "x2Equation", "y2Equation", "z2Equation", "variable2", "particles2");
+
     /**
      * Equations defining the X,Y,Z coordinates over
      * iteration t
@@ -106,6 +113,32 @@ public class EquationEffect extends Effect {
         miniStep = 0;
     }
 
+    @Override
+    public void preload() {
+        loadTransforms();
+    }
+
+    @Override
+    protected void onReload(Set<String> changedFields) {
+        if (Collections.disjoint(changedFields, equationFields)) return;
+        xTransform = null;
+        x2Transform = null;
+        y2Transform = null;
+        z2Transform = null;
+    }
+
+    private void loadTransforms() {
+        xTransform = EquationStore.getInstance().getTransform(xEquation, variable);
+        yTransform = EquationStore.getInstance().getTransform(yEquation, variable);
+        zTransform = EquationStore.getInstance().getTransform(zEquation, variable);
+
+        if (x2Equation != null && y2Equation != null && z2Equation != null && particles2 > 0) {
+            x2Transform = EquationStore.getInstance().getTransform(x2Equation, variable, variable2);
+            y2Transform = EquationStore.getInstance().getTransform(y2Equation, variable, variable2);
+            z2Transform = EquationStore.getInstance().getTransform(z2Equation, variable, variable2);
+        }
+    }
+
     @Override
     public void onRun() {
         Location location = getLocation();
@@ -115,17 +148,7 @@ public class EquationEffect extends Effect {
             return;
         }
 
-        if (xTransform == null) {
-            xTransform = EquationStore.getInstance().getTransform(xEquation, variable);
-            yTransform = EquationStore.getInstance().getTransform(yEquation, variable);
-            zTransform = EquationStore.getInstance().getTransform(zEquation, variable);
-            
-            if (x2Equation != null && y2Equation != null && z2Equation != null && particles2 > 0) {
-                x2Transform = EquationStore.getInstance().getTransform(x2Equation, variable, variable2);
-                y2Transform = EquationStore.getInstance().getTransform(y2Equation, variable, variable2);
-                z2Transform = EquationStore.getInstance().getTransform(z2Equation, variable, variable2);
-            }
-        }
+        if (xTransform == null) loadTransforms();
 
         boolean hasInnerEquation = (x2Transform != null && y2Transform != null && z2Transform != null);
 
@@ -150,7 +173,7 @@ public class EquationEffect extends Effect {
             zValue = zTransform.get(step);
             
             result = new Vector(xValue, yValue, zValue);
-            if (orient && orientPitch) result = VectorUtils.rotateVector(result, location);
+            if (orient && orientPitch) result = getOrientation().rotate(result);
             else if (orient) result = VectorUtils.rotateVector(result, location.getYaw(), 0);
 
             targetLocation = location.clone().add(result);
@@ -162,7 +185,7 @@ public class EquationEffect extends Effect {
                     z2Value = z2Transform.get(step, miniStep);
 
                     result2 = new Vector(x2Value, y2Value, z2Value);
-                    if (orient && orientPitch) result2 = VectorUtils.rotateVector(result2, location);
+                    if (orient && orientPitch) result2 = getOrientation().rotate(result2);
                     else if (orient) result2 = VectorUtils.rotateVector(result2, location.getYaw(), 0);
 
                     target2Location = targetLocation.clone().add(result2);
@@ -185,4 +208,23 @@ public class EquationEffect extends Effect {
         }
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        if (particles <= 0) return;
+        if (maxSteps == 0) {
+            step += particles * iterations;
+            return;
+        }
+
+        // onRun ends an iteration early when it starts over past maxSteps, so run through to the start of the cycle first
+        while (step != 0 && iterations > 0) {
+            step = maxSteps + 1 - step < particles ? 0 : step + particles;
+            iterations--;
+        }
+        if (step != 0) return;
+
+        int cycle = (maxSteps + 1) / particles + 1;
+        step = (iterations % cycle) * particles;
+    }
+
 }
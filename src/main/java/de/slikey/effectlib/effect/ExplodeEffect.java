@@ -5,6 +5,7 @@ import org.bukkit.Location;
 import org.bukkit.Particle;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.util.RandomUtils;
@@ -18,6 +19,7 @@ public class ExplodeEffect extends Effect {
     /**
      * Amount of spawned smoke-sparks
      */
+    @Scalable
     public int amount = 25;
     public Sound sound = Sound.ENTITY_GENERIC_EXPLODE;
 
@@ -5,6 +5,7 @@ import org.bukkit.Particle;
 import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.util.RandomUtils;
@@ -12,6 +13,7 @@ import de.slikey.effectlib.util.RandomUtils;
 @SuppressWarnings({"unused"})
 public class FlameEffect extends Effect {
 
+    @Scalable
     public int particles = 10;
 
     public FlameEffect(EffectManager effectManager) {
@@ -5,8 +5,10 @@ import org.bukkit.Particle;
 import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
+import de.slikey.effectlib.util.MathUtils;
 import de.slikey.effectlib.util.RandomUtils;
 
 @SuppressWarnings({"unused"})
@@ -20,11 +22,13 @@ public class FountainEffect extends Effect {
     /**
      * Particles per iteration per strand (100)
      */
+    @Scalable
     public int particlesStrand = 150;
 
     /**
      * Particles per iteration in the spout
      */
+    @Scalable
     public int particlesSpout = 200;
 
     /**
@@ -80,9 +84,9 @@ public class FountainEffect extends Effect {
 
                 ratio = (float) j / particlesStrand;
 
-                x = Math.cos(angle) * radius * ratio;
-                y = Math.sin(Math.PI * j / particlesStrand) * height;
-                z = Math.sin(angle) * radius * ratio;
+                x = MathUtils.fastCos(angle) * radius * ratio;
+                y = MathUtils.fastSin(Math.PI * j / particlesStrand) * height;
+                z = MathUtils.fastSin(angle) * radius * ratio;
 
                 location.add(x, y, z);
                 display(particle, location);
@@ -5,6 +5,7 @@ import org.bukkit.Particle;
 import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.util.VectorUtils;
@@ -35,11 +36,13 @@ public class GridEffect extends Effect {
     /**
      * Particles to be spawned on the horizontal borders of the cell
      */
+    @Scalable
     public int particlesWidth = 4;
 
     /**
      * Particles to be spawned on the vertical borders of the cell
      */
+    @Scalable
     public int particlesHeight = 3;
 
     /**
@@ -5,6 +5,7 @@ import org.bukkit.Particle;
 import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.util.MathUtils;
 import de.slikey.effectlib.util.VectorUtils;
@@ -20,6 +21,7 @@ public class HeartEffect extends Effect {
     /**
      * Heart-particles per interation (100)
      */
+    @Scalable
     public int particles = 50;
 
     /**
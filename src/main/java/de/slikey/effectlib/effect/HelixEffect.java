@@ -7,6 +7,7 @@ import org.bukkit.util.Vector;
 import de.slikey.effectlib.Effect;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
+import de.slikey.effectlib.util.MathUtils;
 import de.slikey.effectlib.util.VectorUtils;
 
 @SuppressWarnings({"unused"})
@@ -105,8 +106,8 @@ public class HelixEffect extends Effect {
                 ratio = (float) j / particles;
                 angle = curve * ratio * 2 * Math.PI / strands + (2 * Math.PI * i / strands) + rotation;
 
-                v.setX(Math.cos(angle) * ratio * radius);
-                v.setZ(Math.sin(angle) * ratio * radius);
+                v.setX(MathUtils.fastCos(angle) * ratio * radius);
+                v.setZ(MathUtils.fastSin(angle) * ratio * radius);
 
                 VectorUtils.rotateVector(v, xRotation, yRotation, zRotation);
 
@@ -114,7 +115,7 @@ public class HelixEffect extends Effect {
                     VectorUtils.rotateVector(v, angularVelocityX * step, angularVelocityY * step, angularVelocityZ * step);
                 }
 
-                if (orient) v = VectorUtils.rotateVector(v, location);
+                if (orient) v = getOrientation().rotate(v);
 
                 location.add(v);
                 display(particle, location);
@@ -125,4 +126,9 @@ public class HelixEffect extends Effect {
         }
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        step += strands * particles * iterations;
+    }
+
 }
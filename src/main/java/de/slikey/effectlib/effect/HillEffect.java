@@ -2,12 +2,13 @@ package de.slikey.effectlib.effect;
 
 import org.bukkit.Location;
 import org.bukkit.Particle;
-import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
-import de.slikey.effectlib.util.VectorUtils;
+import de.slikey.effectlib.math.PointBuffer;
+import de.slikey.effectlib.util.MathUtils;
+import de.slikey.effectlib.math.PointTransformKernels;
 /**
  * Taken from http://en.wikipedia.org/wiki/Torus
  *
@@ -44,31 +45,45 @@ public class HillEffect extends Effect {
         iterations = 20;
     }
 
+    /**
+     * Positions of the current iteration
+     */
+    private PointBuffer points;
+
     @Override
     public void onRun() {
         Location location = getLocation();
-        Vector v = new Vector();
 
         if (location == null) {
             cancel();
             return;
         }
 
+        if (points == null) points = new PointBuffer();
+        points.clear();
+
         double y1;
         double y2;
 
         for (int x = 0; x <= particles; x++) {
-            y1 = Math.sin(Math.PI * x / particles);
+            y1 = MathUtils.fastSin(Math.PI * x / particles);
             for (int z = 0; z <= particles; z++) {
-                y2 = Math.sin(Math.PI * z / particles);
-                v.setX(edgeLength * x / particles).setZ(edgeLength * z / particles);
-                v.setY(height * y1 * y2);
-                VectorUtils.rotateAroundAxisY(v, yRotation);
-
-                display(particle, location.add(v));
-                location.subtract(v);
+                y2 = MathUtils.fastSin(Math.PI * z / particles);
+                points.add(edgeLength * x / particles, height * y1 * y2, edgeLength * z / particles);
             }
         }
+
+        double[] matrix = PointTransformKernels.setRotation(PointTransformKernels.identity(), 0, yRotation, 0);
+        PointTransformKernels.setTranslation(matrix, location.getX(), location.getY(), location.getZ());
+        points.transform(matrix);
+
+        Location point = location.clone();
+        for (int i = 0; i < points.size(); i++) {
+            point.setX(points.getX(i));
+            point.setY(points.getY(i));
+            point.setZ(points.getZ(i));
+            display(particle, point);
+        }
     }
 
 }
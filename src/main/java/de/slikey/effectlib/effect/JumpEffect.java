@@ -35,4 +35,9 @@ public class JumpEffect extends Effect {
         entity.setVelocity(v);
     }
 
+    @Override
+    protected boolean canBeDormant() {
+        return false;
+    }
+
 }
@@ -6,6 +6,7 @@ import org.bukkit.util.Vector;
 import org.bukkit.configuration.ConfigurationSection;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.util.VectorUtils;
@@ -36,6 +37,7 @@ public class LineEffect extends Effect {
     /**
      * Particles per arc
      */
+    @Scalable
     public int particles = 100;
 
     /**
@@ -1,9 +1,11 @@
 package de.slikey.effectlib.effect;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.List;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Collections;
 import java.lang.reflect.Field;
 
 import com.google.common.base.CaseFormat;
@@ -16,6 +18,7 @@ import org.bukkit.util.Vector;
 import org.bukkit.configuration.ConfigurationSection;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.EffectSpec;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.util.VectorUtils;
@@ -26,6 +29,7 @@ import de.slikey.effectlib.math.EquationTransform;
 public class ModifiedEffect extends Effect {
     private final static String[] _variables = {"t", "i", "a", "b"};
     private final static List<String> variables = Arrays.asList(_variables);
+    private final static List<String> innerEffectFields = Arrays.asList("effect", "effectClass", "xEquation", "yEquation", "zEquation", "parameters");
 
     /**
      * The base configuration of the inner effect.
@@ -85,6 +89,7 @@ public class ModifiedEffect extends Effect {
     public Map<String, String> parameters = new HashMap<>();
 
     private boolean initialized = false;
+    private boolean effectClassFromSection = false;
     private Effect innerEffect;
     private Map<Field, EquationTransform> parameterTransforms = new HashMap<>();
     private int step = 0;
@@ -112,6 +117,47 @@ public class ModifiedEffect extends Effect {
         if (innerEffect != null) innerEffect.onDone();
     }
 
+    @Override
+    public void preload() {
+        for (String equation : parameters.values()) {
+            EquationStore.getInstance().getTransform(equation, variables);
+        }
+        if (xEquation != null) EquationStore.getInstance().getTransform(xEquation, _variables);
+        if (yEquation != null) EquationStore.getInstance().getTransform(yEquation, _variables);
+        if (zEquation != null) EquationStore.getInstance().getTransform(zEquation, _variables);
+
+        String innerClass = effectClass;
+        if (innerClass == null && effect != null) innerClass = effect.getString("class");
+        if (innerClass == null) return;
+
+        EffectSpec spec = effectManager.compile(innerClass, effect, "ModifiedEffect");
+        if (spec != null) spec.preload();
+    }
+
+    @Override
+    protected void onRelease() {
+        if (innerEffect != null) effectManager.releaseEffect(innerEffect);
+    }
+
+    @Override
+    protected void onReload(Set<String> changedFields) {
+        if (!initialized || Collections.disjoint(changedFields, innerEffectFields)) return;
+
+        // Build the inner effect again on the next run
+        if (innerEffect != null) {
+            innerEffect.onDone();
+            effectManager.releaseEffect(innerEffect);
+        }
+        if (effectClassFromSection && !changedFields.contains("effectClass")) effectClass = null;
+        effectClassFromSection = false;
+        innerEffect = null;
+        initialized = false;
+        parameterTransforms.clear();
+        xTransform = null;
+        yTransform = null;
+        zTransform = null;
+    }
+
     @Override
     public void onRun() {
         if (!initialized) {
@@ -122,7 +168,10 @@ public class ModifiedEffect extends Effect {
                 return;
             }
 
-            if (effectClass == null) effectClass = effect.getString("class");
+            if (effectClass == null) {
+                effectClass = effect.getString("class");
+                effectClassFromSection = true;
+            }
 
             if (effectClass == null) {
                 effectManager.onError("ModifiedEffect missing inner effect class property");
@@ -248,6 +297,11 @@ public class ModifiedEffect extends Effect {
         step++;
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        step += iterations;
+    }
+
     public Effect getInnerEffect() {
         return innerEffect;
     }
@@ -6,6 +6,7 @@ import org.bukkit.Location;
 import de.slikey.effectlib.Effect;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
+import de.slikey.effectlib.util.MathUtils;
 
 @SuppressWarnings({"unused"})
 public class MusicEffect extends Effect {
@@ -48,10 +49,15 @@ public class MusicEffect extends Effect {
         }
 
         location.add(0, 1.9F, 0);
-        location.add(Math.cos(radialsPerStep * step) * radius, 0, Math.sin(radialsPerStep * step) * radius);
+        location.add(MathUtils.fastCos(radialsPerStep * step) * radius, 0, MathUtils.fastSin(radialsPerStep * step) * radius);
 
         display(particle, location);
         step++;
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        step += iterations;
+    }
+
 }
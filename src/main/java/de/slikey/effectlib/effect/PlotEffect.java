@@ -64,6 +64,13 @@ public class PlotEffect extends Effect {
         iterations = 100;
     }
 
+    @Override
+    public void preload() {
+        if (xEquation != null && !xEquation.isEmpty()) EquationStore.getInstance().getTransform(xEquation, variables);
+        if (yEquation != null && !yEquation.isEmpty()) EquationStore.getInstance().getTransform(yEquation, variables);
+        if (zEquation != null && !zEquation.isEmpty()) EquationStore.getInstance().getTransform(zEquation, variables);
+    }
+
     @Override
     public void onRun() {
         int base = persistent ? 0 : step;
@@ -109,4 +116,9 @@ public class PlotEffect extends Effect {
         step++;
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        step += iterations;
+    }
+
 }
@@ -5,6 +5,7 @@ import org.bukkit.Particle;
 import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.EffectType;
 
@@ -14,6 +15,7 @@ public class PyramidEffect extends Effect {
     /**
      * Particles in each row
      */
+    @Scalable
     public int particles = 8;
 
     /**
@@ -2,9 +2,9 @@ package de.slikey.effectlib.effect;
 
 import org.bukkit.Particle;
 import org.bukkit.Location;
-import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.util.RandomUtils;
@@ -20,6 +20,7 @@ public class ShieldEffect extends Effect {
     /**
      * Particles to display
      */
+    @Scalable
     public int particles = 50;
 
     /**
@@ -30,6 +31,8 @@ public class ShieldEffect extends Effect {
     // Set to true to reverse the direction of the shield (works only if sphere is set to false)
     public boolean reverse = false;
 
+    protected double[] vectors;
+
     public ShieldEffect(EffectManager effectManager) {
         super(effectManager);
         type = EffectType.REPEATING;
@@ -41,23 +44,27 @@ public class ShieldEffect extends Effect {
     @Override
     public void onRun() {
         Location location = getLocation();
-        Vector v;
+        double x, y, z;
 
         if (location == null) {
             cancel();
             return;
         }
 
-        for (int i = 0; i < particles; i++) {
-            v = RandomUtils.getRandomVector().multiply(radius);
+        vectors = RandomUtils.ensureCapacity(vectors, particles * 3);
+        RandomUtils.getRandomVectors(vectors, particles);
+        for (int i = 0, j = 0; i < particles; i++, j += 3) {
+            x = vectors[j] * radius;
+            y = vectors[j + 1] * radius;
+            z = vectors[j + 2] * radius;
             if (!sphere) {
-                if (reverse) v.setY(Math.abs(v.getY()) * -1);
-                else v.setY(Math.abs(v.getY()));
+                if (reverse) y = Math.abs(y) * -1;
+                else y = Math.abs(y);
             }
 
-            location.add(v);
+            location.add(x, y, z);
             display(particle, location);
-            location.subtract(v);
+            location.subtract(x, y, z);
         }
     }
 
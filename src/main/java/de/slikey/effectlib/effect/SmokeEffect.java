@@ -4,6 +4,7 @@ import org.bukkit.Location;
 import org.bukkit.Particle;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.util.RandomUtils;
@@ -14,6 +15,7 @@ public class SmokeEffect extends Effect {
     /**
      * Number of particles to display
      */
+    @Scalable
     public int particles = 20;
 
     public SmokeEffect(EffectManager effectManager) {
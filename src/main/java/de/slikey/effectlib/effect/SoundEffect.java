@@ -27,4 +27,9 @@ public class SoundEffect extends Effect {
         sound.play(effectManager.getOwningPlugin(), getLocation());
     }
 
+    @Override
+    protected boolean canBeDormant() {
+        return false;
+    }
+
 }
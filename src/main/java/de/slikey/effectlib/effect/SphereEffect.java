@@ -2,7 +2,6 @@ package de.slikey.effectlib.effect;
 
 import org.bukkit.Particle;
 import org.bukkit.Location;
-import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
 import de.slikey.effectlib.EffectType;
@@ -35,6 +34,8 @@ public class SphereEffect extends Effect {
     // Amount to increase the particles per tick
     public int particleIncrease = 0;
 
+    protected double[] vectors;
+
     public SphereEffect(EffectManager effectManager) {
         super(effectManager);
         type = EffectType.REPEATING;
@@ -56,13 +57,17 @@ public class SphereEffect extends Effect {
         }
 
         location.add(0, yOffset, 0);
-        Vector v;
+        double x, y, z;
 
-        for (int i = 0; i < particles; i++) {
-            v = RandomUtils.getRandomVector().multiply(radius);
-            location.add(v);
+        vectors = RandomUtils.ensureCapacity(vectors, particles * 3);
+        RandomUtils.getRandomVectors(vectors, particles);
+        for (int i = 0, j = 0; i < particles; i++, j += 3) {
+            x = vectors[j] * radius;
+            y = vectors[j + 1] * radius;
+            z = vectors[j + 2] * radius;
+            location.add(x, y, z);
             display(particle, location);
-            location.subtract(v);
+            location.subtract(x, y, z);
         }
     }
 
@@ -5,6 +5,7 @@ import org.bukkit.Particle;
 import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.util.MathUtils;
@@ -17,6 +18,7 @@ public class StarEffect extends Effect {
     /**
      * Particles per spike
      */
+    @Scalable
     public int particles = 50;
 
     /**
@@ -63,7 +65,7 @@ public class StarEffect extends Effect {
             for (int x = 0; x < particles; x++) {
                 angle = 2 * Math.PI * x / particles;
                 height = RandomUtils.random.nextFloat() * spikeHeight;
-                v = new Vector(Math.cos(angle), 0, Math.sin(angle));
+                v = new Vector(MathUtils.fastCos(angle), 0, MathUtils.fastSin(angle));
                 v.multiply((spikeHeight - height) * radius / spikeHeight);
                 v.setY(innerRadius + height);
 
@@ -7,14 +7,15 @@ import java.awt.image.BufferedImage;
 
 import org.bukkit.Location;
 import org.bukkit.Particle;
-import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
+import de.slikey.effectlib.math.PointBuffer;
 import de.slikey.effectlib.util.MathUtils;
-import de.slikey.effectlib.util.VectorUtils;
 import de.slikey.effectlib.util.StringParser;
+import de.slikey.effectlib.math.PointTransformKernels;
 
 @SuppressWarnings({"unused"})
 public class TextEffect extends Effect {
@@ -32,11 +33,13 @@ public class TextEffect extends Effect {
     /**
      * Each stepX pixel will be shown. Saves packets for lower fontsizes.
      */
+    @Scalable(inverse = true)
     public int stepX = 1;
 
     /**
      * Each stepY pixel will be shown. Saves packets for lower fontsizes.
      */
+    @Scalable(inverse = true)
     public int stepY = 1;
 
     /**
@@ -71,6 +74,11 @@ public class TextEffect extends Effect {
      */
     private Font lastParsedFont = null;
 
+    /**
+     * Positions of the current iteration
+     */
+    private PointBuffer points;
+
     public TextEffect(EffectManager effectManager) {
         super(effectManager);
         font = new Font("Tahoma", Font.PLAIN, 16);
@@ -99,27 +107,42 @@ public class TextEffect extends Effect {
         }
 
         int clr;
-        Vector v;
 
         try {
             if (image == null || shouldRecalculateImage()) {
                 lastParsedText = text;
                 lastParsedFont = font;
                 // Use last parsed references instead for additional thread safety
-                image = StringParser.stringToBufferedImage(lastParsedFont, lastParsedText);
+                image = StringParser.getImage(lastParsedFont, lastParsedText);
             }
+
+            if (points == null) points = new PointBuffer();
+            points.clear();
+
+            float halfWidth = (float) image.getWidth() / 2;
+            float halfHeight = (float) image.getHeight() / 2;
             for (int y = 0; y < image.getHeight(); y += stepY) {
                 for (int x = 0; x < image.getWidth(); x += stepX) {
                     clr = image.getRGB(x, y);
                     if (!invert && Color.black.getRGB() != clr) continue;
                     else if (invert && Color.black.getRGB() == clr) continue;
 
-                    v = new Vector((float) image.getWidth() / 2 - x, (float) image.getHeight() / 2 - y, 0).multiply(size);
-                    VectorUtils.rotateAroundAxisY(v, -location.getYaw() * MathUtils.degreesToRadians);
-                    display(particle, location.add(v));
-                    location.subtract(v);
+                    points.add(halfWidth - x, halfHeight - y, 0);
                 }
             }
+
+            double[] matrix = PointTransformKernels.scale(PointTransformKernels.identity(), size);
+            PointTransformKernels.rotate(matrix, 0, -location.getYaw() * MathUtils.degreesToRadians, 0);
+            PointTransformKernels.setTranslation(matrix, location.getX(), location.getY(), location.getZ());
+            points.transform(matrix);
+
+            Location point = location.clone();
+            for (int i = 0; i < points.size(); i++) {
+                point.setX(points.getX(i));
+                point.setY(points.getY(i));
+                point.setZ(points.getZ(i));
+                display(particle, point);
+            }
         } catch (Exception ex) {
             // This seems to happen on bad characters in strings,
             // I'm choosing to ignore the exception and cancel the effect for now.
@@ -127,6 +150,11 @@ public class TextEffect extends Effect {
         }
     }
     
+    @Override
+    public void preload() {
+        if (font != null && text != null) StringParser.getImage(font, text);
+    }
+
     private boolean shouldRecalculateImage() {
         // Don't bother if we don't use real time updates
         if (!realtime) return false;
@@ -9,8 +9,10 @@ import org.bukkit.Particle;
 import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
+import de.slikey.effectlib.util.MathUtils;
 import de.slikey.effectlib.util.RandomUtils;
 
 @SuppressWarnings({"unused"})
@@ -67,11 +69,13 @@ public class TornadoEffect extends Effect {
     /**
      * Number of particles per circle
      */
+    @Scalable
     public int circleParticles = 64;
 
     /**
      * Number of particles in the cloud
      */
+    @Scalable
     public int cloudParticles = 100;
 
     /**
@@ -146,8 +150,8 @@ public class TornadoEffect extends Effect {
 
         for (int i = 0; i < amount; i++) {
             angle = i * inc;
-            x = radius * Math.cos(angle);
-            z = radius * Math.sin(angle);
+            x = radius * MathUtils.fastCos(angle);
+            z = radius * MathUtils.fastSin(angle);
             v = new Vector(x, y, z);
             vectors.add(v);
         }
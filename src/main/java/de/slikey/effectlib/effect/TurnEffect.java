@@ -35,4 +35,9 @@ public class TurnEffect extends Effect {
         entity.teleport(loc);
     }
 
+    @Override
+    protected boolean canBeDormant() {
+        return false;
+    }
+
 }
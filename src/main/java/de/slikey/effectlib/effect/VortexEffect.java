@@ -71,7 +71,7 @@ public class VortexEffect extends Effect {
         for (int x = 0; x < circles; x++) {
             for (int i = 0; i < helixes; i++) {
                 angle = step * radials + (2 * Math.PI * i / helixes);
-                v = new Vector(Math.cos(angle) * radius, step * grow, Math.sin(angle) * radius);
+                v = new Vector(MathUtils.fastCos(angle) * radius, step * grow, MathUtils.fastSin(angle) * radius);
                 VectorUtils.rotateAroundAxisX(v, (location.getPitch() + 90) * MathUtils.degreesToRadians);
                 VectorUtils.rotateAroundAxisY(v, -location.getYaw() * MathUtils.degreesToRadians);
 
@@ -83,4 +83,9 @@ public class VortexEffect extends Effect {
         }
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        step += circles * iterations;
+    }
+
 }
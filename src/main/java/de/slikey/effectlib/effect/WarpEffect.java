@@ -6,6 +6,7 @@ import org.bukkit.Particle;
 import de.slikey.effectlib.Effect;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
+import de.slikey.effectlib.util.MathUtils;
 
 @SuppressWarnings({"unused"})
 public class WarpEffect extends Effect {
@@ -67,8 +68,8 @@ public class WarpEffect extends Effect {
 
         for (int i = 0; i < particles; i++) {
             angle = (double) 2 * Math.PI * i / particles;
-            x = Math.cos(angle) * radius;
-            z = Math.sin(angle) * radius;
+            x = MathUtils.fastCos(angle) * radius;
+            z = MathUtils.fastSin(angle) * radius;
             location.add(x, 0, z);
             display(particle, location);
             location.subtract(x, 0, z);
@@ -77,4 +78,9 @@ public class WarpEffect extends Effect {
         step++;
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        step = (int) ((step + (long) iterations) % (rings + 1));
+    }
+
 }
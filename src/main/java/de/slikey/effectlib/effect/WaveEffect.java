@@ -1,7 +1,11 @@
 package de.slikey.effectlib.effect;
 
+import java.util.Set;
+import java.util.List;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Collection;
+import java.util.Collections;
 
 import org.bukkit.Color;
 import org.bukkit.Location;
@@ -9,6 +13,7 @@ import org.bukkit.Particle;
 import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
 import de.slikey.effectlib.util.MathUtils;
@@ -17,6 +22,8 @@ import de.slikey.effectlib.util.VectorUtils;
 @SuppressWarnings({"unused"})
 public class WaveEffect extends Effect {
 
+    private static final List<String> geometryFields = Arrays.asList("particlesFront", "particlesBack", "rows", "lengthFront", "lengthBack", "depthFront", "heightBack", "height", "width");
+
     public Particle mainParticle = Particle.DRIP_WATER;
     public Particle cloudParticle = Particle.CLOUD;
     public Color cloudColor = null;
@@ -35,11 +42,13 @@ public class WaveEffect extends Effect {
     /**
      * Amount of particles forming the tube
      */
+    @Scalable
     public int particlesFront = 10;
 
     /**
      * Amount of particles forming the back
      */
+    @Scalable
     public int particlesBack = 10;
 
     /**
@@ -97,6 +106,14 @@ public class WaveEffect extends Effect {
         firstStep = true;
     }
 
+    @Override
+    protected void onReload(Set<String> changedFields) {
+        if (firstStep || Collections.disjoint(changedFields, geometryFields)) return;
+        // Keep the wave moving as it was, only rebuild its shape
+        Location location = getLocation();
+        if (location != null) invalidate(location);
+    }
+
     /**
      * Call this method when you change anything related to the creation of the wave
      */
@@ -179,10 +196,7 @@ public class WaveEffect extends Effect {
             return;
         }
 
-        if (firstStep) {
-            velocity.copy(location.getDirection().setY(0).normalize().multiply(0.2));
-            invalidate(location);
-        }
+        if (firstStep) aim(location);
         location.add(velocity);
 
         for (Vector v : cloudCache) {
@@ -198,4 +212,19 @@ public class WaveEffect extends Effect {
         }
     }
 
+    @Override
+    protected void skipIterations(int iterations) {
+        Location location = getLocation();
+        if (location == null) return;
+
+        // Keep moving while no one could see the wave, so it wakes up where it would have been
+        if (firstStep) aim(location);
+        location.add(velocity.clone().multiply(iterations));
+    }
+
+    private void aim(Location location) {
+        velocity.copy(location.getDirection().setY(0).normalize().multiply(0.2));
+        invalidate(location);
+    }
+
 }
@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -14,8 +15,9 @@ import org.apache.commons.lang3.StringUtils;
 public class EquationStore {
 
     private static final String DEFAULT_VARIABLE = "x";
-    private static EquationStore instance;
-    private final Map<String, EquationTransform> transforms = new HashMap<>();
+    private static final EquationStore instance = new EquationStore();
+    // Equations may be preloaded from other threads, see EffectManager.preload
+    private final Map<String, EquationTransform> transforms = new ConcurrentHashMap<>();
 
     public EquationTransform getTransform(String equation) {
         return getTransform(equation, DEFAULT_VARIABLE);
@@ -25,7 +27,8 @@ public class EquationStore {
         EquationTransform transform = transforms.get(equation);
         if (transform == null) {
             transform = new EquationTransform(equation, variable);
-            transforms.put(equation, transform);
+            EquationTransform existing = transforms.putIfAbsent(equation, transform);
+            if (existing != null) transform = existing;
         }
 
         return transform;
@@ -36,7 +39,8 @@ public class EquationStore {
         EquationTransform transform = transforms.get(equationKey);
         if (transform == null) {
             transform = new EquationTransform(equation, variables);
-            transforms.put(equationKey, transform);
+            EquationTransform existing = transforms.putIfAbsent(equationKey, transform);
+            if (existing != null) transform = existing;
         }
 
         return transform;
@@ -47,19 +51,18 @@ public class EquationStore {
         EquationTransform transform = transforms.get(equationKey);
         if (transform == null) {
             transform = new EquationTransform(equation, variables);
-            transforms.put(equationKey, transform);
+            EquationTransform existing = transforms.putIfAbsent(equationKey, transform);
+            if (existing != null) transform = existing;
         }
         
         return transform;
     }
 
     public static void clear() {
-        if (instance != null) instance.transforms.clear();
+        instance.transforms.clear();
     }
     
     public static EquationStore getInstance() {
-        if (instance == null) instance = new EquationStore();
-        
         return instance;
     }
 
@@ -56,7 +56,7 @@ public class EquationTransform implements Transform, VariableProvider {
         setEquation(equation);
     }
 
-    private void checkCustomFunctions() {
+    private static synchronized void checkCustomFunctions() {
         if (randFunction == null) {
             randFunction = new Function("rand", 2) {
                 private final Random random = new Random();
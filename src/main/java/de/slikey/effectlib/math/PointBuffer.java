@@ -0,0 +1,73 @@
+package de.slikey.effectlib.math;
+
+import java.util.Arrays;
+
+/**
+ * Growable x, y and z arrays of points, for transforming all of an effect's points at once
+ * with {@link PointTransformKernels#getKernel()}.
+ */
+@SuppressWarnings({"unused"})
+public class PointBuffer {
+
+    private double[] x;
+    private double[] y;
+    private double[] z;
+    private int size;
+
+    public PointBuffer() {
+        this(64);
+    }
+
+    public PointBuffer(int capacity) {
+        capacity = Math.max(1, capacity);
+        x = new double[capacity];
+        y = new double[capacity];
+        z = new double[capacity];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the index of the added point
+     */
+    public int add(double px, double py, double pz) {
+        if (size == x.length) {
+            int capacity = x.length * 2;
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            z = Arrays.copyOf(z, capacity);
+        }
+        x[size] = px;
+        y[size] = py;
+        z[size] = pz;
+        return size++;
+    }
+
+    /**
+     * Transform every point in place.
+     *
+     * @param matrix the 3x4 row-major affine matrix, see {@link PointTransformKernel}
+     */
+    public void transform(double[] matrix) {
+        PointTransformKernels.getKernel().transform(matrix, x, y, z, 0, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getX(int index) {
+        return x[index];
+    }
+
+    public double getY(int index) {
+        return y[index];
+    }
+
+    public double getZ(int index) {
+        return z[index];
+    }
+
+}
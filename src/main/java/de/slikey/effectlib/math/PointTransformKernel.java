@@ -0,0 +1,32 @@
+package de.slikey.effectlib.math;
+
+/**
+ * Applies a 3x4 affine transform to points stored in separate x, y and z arrays.
+ *
+ * The matrix is 12 doubles in row-major order, so for each point:
+ * x' = m[0] * x + m[1] * y + m[2] * z + m[3]
+ * y' = m[4] * x + m[5] * y + m[6] * z + m[7]
+ * z' = m[8] * x + m[9] * y + m[10] * z + m[11]
+ *
+ * Use {@link PointTransformKernels#getKernel()} to get the best implementation for this JVM.
+ */
+public interface PointTransformKernel {
+
+    /**
+     * Transform points in place.
+     *
+     * @param matrix the 3x4 row-major affine matrix
+     * @param x the x coordinates
+     * @param y the y coordinates
+     * @param z the z coordinates
+     * @param offset the index of the first point to transform
+     * @param count the number of points to transform
+     */
+    void transform(double[] matrix, double[] x, double[] y, double[] z, int offset, int count);
+
+    /**
+     * Whether this kernel uses SIMD instructions.
+     */
+    boolean isVectorized();
+
+}
@@ -0,0 +1,144 @@
+package de.slikey.effectlib.math;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.slikey.effectlib.util.MathUtils;
+
+/**
+ * Picks the {@link PointTransformKernel} to use, and builds the matrices it takes.
+ *
+ * The SIMD kernel is used when the jdk.incubator.vector module is available, which requires
+ * starting the server with --add-modules jdk.incubator.vector. Set the system property
+ * effectlib.simd to false to force the scalar kernel.
+ */
+@SuppressWarnings({"unused"})
+public class PointTransformKernels {
+
+    private static final String SIMD_KERNEL_CLASS = "de.slikey.effectlib.math.SimdPointTransformKernel";
+    private static final PointTransformKernel scalarKernel = new ScalarPointTransformKernel();
+    private static final PointTransformKernel kernel = createKernel();
+
+    public static PointTransformKernel getKernel() {
+        return kernel;
+    }
+
+    public static PointTransformKernel getScalarKernel() {
+        return scalarKernel;
+    }
+
+    public static boolean isVectorized() {
+        return getKernel().isVectorized();
+    }
+
+    private static PointTransformKernel createKernel() {
+        if (!Boolean.parseBoolean(System.getProperty("effectlib.simd", "true"))) return scalarKernel;
+
+        try {
+            Class.forName("jdk.incubator.vector.DoubleVector");
+        } catch (Throwable ex) {
+            // Module not enabled, this is the normal case
+            return scalarKernel;
+        }
+
+        try {
+            Class<?> kernelClass = Class.forName(SIMD_KERNEL_CLASS);
+            return (PointTransformKernel) kernelClass.getConstructor().newInstance();
+        } catch (Throwable ex) {
+            Logger.getLogger("EffectLib").log(Level.WARNING, "Could not load SIMD point transform kernel, using scalar fallback", ex);
+        }
+
+        return scalarKernel;
+    }
+
+    /**
+     * Transform points in place with the best available kernel.
+     */
+    public static void transform(double[] matrix, double[] x, double[] y, double[] z, int count) {
+        getKernel().transform(matrix, x, y, z, 0, count);
+    }
+
+    public static double[] identity() {
+        return identity(new double[12]);
+    }
+
+    public static double[] identity(double[] matrix) {
+        for (int i = 0; i < 12; i++) {
+            matrix[i] = 0;
+        }
+        matrix[0] = 1;
+        matrix[5] = 1;
+        matrix[10] = 1;
+        return matrix;
+    }
+
+    /**
+     * Set the rotation part of a matrix, rotating around the X, then Y, then Z axis.
+     *
+     * This matches {@link de.slikey.effectlib.util.VectorUtils#rotateVector(org.bukkit.util.Vector, double, double, double)}.
+     * The translation part is left unchanged.
+     */
+    public static double[] setRotation(double[] matrix, double angleX, double angleY, double angleZ) {
+        double cx = MathUtils.fastCos(angleX), sx = MathUtils.fastSin(angleX);
+        double cy = MathUtils.fastCos(angleY), sy = MathUtils.fastSin(angleY);
+        double cz = MathUtils.fastCos(angleZ), sz = MathUtils.fastSin(angleZ);
+
+        matrix[0] = cz * cy;
+        matrix[1] = cz * sy * sx - sz * cx;
+        matrix[2] = cz * sy * cx + sz * sx;
+        matrix[4] = sz * cy;
+        matrix[5] = sz * sy * sx + cz * cx;
+        matrix[6] = sz * sy * cx - cz * sx;
+        matrix[8] = -sy;
+        matrix[9] = cy * sx;
+        matrix[10] = cy * cx;
+        return matrix;
+    }
+
+    /**
+     * Rotate around the X, then Y, then Z axis after the transform already in a matrix.
+     */
+    public static double[] rotate(double[] matrix, double angleX, double angleY, double angleZ) {
+        return multiply(setRotation(identity(), angleX, angleY, angleZ), matrix, matrix);
+    }
+
+    /**
+     * Combine two matrices into one that applies the right one first, then the left one.
+     *
+     * @param out receives the result, may be either of the inputs
+     */
+    public static double[] multiply(double[] left, double[] right, double[] out) {
+        double r00 = right[0], r01 = right[1], r02 = right[2], r03 = right[3];
+        double r10 = right[4], r11 = right[5], r12 = right[6], r13 = right[7];
+        double r20 = right[8], r21 = right[9], r22 = right[10], r23 = right[11];
+
+        for (int row = 0; row < 12; row += 4) {
+            double l0 = left[row], l1 = left[row + 1], l2 = left[row + 2], l3 = left[row + 3];
+            out[row] = l0 * r00 + l1 * r10 + l2 * r20;
+            out[row + 1] = l0 * r01 + l1 * r11 + l2 * r21;
+            out[row + 2] = l0 * r02 + l1 * r12 + l2 * r22;
+            out[row + 3] = l0 * r03 + l1 * r13 + l2 * r23 + l3;
+        }
+        return out;
+    }
+
+    /**
+     * Scale the rotation part of a matrix, so points are scaled before they are rotated.
+     */
+    public static double[] scale(double[] matrix, double scale) {
+        for (int row = 0; row < 12; row += 4) {
+            matrix[row] *= scale;
+            matrix[row + 1] *= scale;
+            matrix[row + 2] *= scale;
+        }
+        return matrix;
+    }
+
+    public static double[] setTranslation(double[] matrix, double x, double y, double z) {
+        matrix[3] = x;
+        matrix[7] = y;
+        matrix[11] = z;
+        return matrix;
+    }
+
+}
@@ -0,0 +1,34 @@
+package de.slikey.effectlib.math;
+
+/**
+ * Plain loop implementation of {@link PointTransformKernel}, used when the JDK Vector API is not available.
+ */
+public class ScalarPointTransformKernel implements PointTransformKernel {
+
+    @Override
+    public void transform(double[] matrix, double[] x, double[] y, double[] z, int offset, int count) {
+        transformRange(matrix, x, y, z, offset, offset + count);
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return false;
+    }
+
+    static void transformRange(double[] m, double[] x, double[] y, double[] z, int start, int end) {
+        double m00 = m[0], m01 = m[1], m02 = m[2], m03 = m[3];
+        double m10 = m[4], m11 = m[5], m12 = m[6], m13 = m[7];
+        double m20 = m[8], m21 = m[9], m22 = m[10], m23 = m[11];
+
+        double px, py, pz;
+        for (int i = start; i < end; i++) {
+            px = x[i];
+            py = y[i];
+            pz = z[i];
+            x[i] = m00 * px + m01 * py + m02 * pz + m03;
+            y[i] = m10 * px + m11 * py + m12 * pz + m13;
+            z[i] = m20 * px + m21 * py + m22 * pz + m23;
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package de.slikey.effectlib.math;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link PointTransformKernel} using the incubating JDK Vector API.
+ *
+ * Do not reference this class directly, it will fail to load unless the server was started
+ * with --add-modules jdk.incubator.vector. Use {@link PointTransformKernels#getKernel()} instead.
+ */
+public class SimdPointTransformKernel implements PointTransformKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void transform(double[] m, double[] x, double[] y, double[] z, int offset, int count) {
+        int end = offset + count;
+        int upperBound = offset + SPECIES.loopBound(count);
+        int i = offset;
+
+        if (i < upperBound) {
+            DoubleVector m00 = DoubleVector.broadcast(SPECIES, m[0]);
+            DoubleVector m01 = DoubleVector.broadcast(SPECIES, m[1]);
+            DoubleVector m02 = DoubleVector.broadcast(SPECIES, m[2]);
+            DoubleVector m03 = DoubleVector.broadcast(SPECIES, m[3]);
+            DoubleVector m10 = DoubleVector.broadcast(SPECIES, m[4]);
+            DoubleVector m11 = DoubleVector.broadcast(SPECIES, m[5]);
+            DoubleVector m12 = DoubleVector.broadcast(SPECIES, m[6]);
+            DoubleVector m13 = DoubleVector.broadcast(SPECIES, m[7]);
+            DoubleVector m20 = DoubleVector.broadcast(SPECIES, m[8]);
+            DoubleVector m21 = DoubleVector.broadcast(SPECIES, m[9]);
+            DoubleVector m22 = DoubleVector.broadcast(SPECIES, m[10]);
+            DoubleVector m23 = DoubleVector.broadcast(SPECIES, m[11]);
+
+            for (; i < upperBound; i += SPECIES.length()) {
+                DoubleVector px = DoubleVector.fromArray(SPECIES, x, i);
+                DoubleVector py = DoubleVector.fromArray(SPECIES, y, i);
+                DoubleVector pz = DoubleVector.fromArray(SPECIES, z, i);
+
+                // mul/add rather than fma, fma is emulated and very slow on CPUs without it
+                px.mul(m00).add(py.mul(m01)).add(pz.mul(m02)).add(m03).intoArray(x, i);
+                px.mul(m10).add(py.mul(m11)).add(pz.mul(m12)).add(m13).intoArray(y, i);
+                px.mul(m20).add(py.mul(m21)).add(pz.mul(m22)).add(m23).intoArray(z, i);
+            }
+        }
+
+        ScalarPointTransformKernel.transformRange(m, x, y, z, i, end);
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
+}
@@ -1,6 +1,7 @@
 package de.slikey.effectlib.util;
 
 import java.io.File;
+import java.util.Arrays;
 import java.awt.image.BufferedImage;
 
 import org.bukkit.Location;
@@ -8,9 +9,12 @@ import org.bukkit.Particle;
 import org.bukkit.util.Vector;
 
 import de.slikey.effectlib.Effect;
+import de.slikey.effectlib.Scalable;
 import de.slikey.effectlib.EffectType;
 import de.slikey.effectlib.EffectManager;
+import de.slikey.effectlib.math.PointBuffer;
 import de.slikey.effectlib.effect.ColoredImageEffect;
+import de.slikey.effectlib.math.PointTransformKernels;
 
 public abstract class BaseImageEffect extends Effect {
 
@@ -32,11 +36,13 @@ public abstract class BaseImageEffect extends Effect {
     /**
      * Each stepX pixel will be shown. Saves packets for high resolutions.
      */
+    @Scalable(inverse = true)
     public int stepX = 10;
 
     /**
      * Each stepY pixel will be shown. Saves packets for high resolutions.
      */
+    @Scalable(inverse = true)
     public int stepY = 10;
 
     /**
@@ -106,6 +112,12 @@ public abstract class BaseImageEffect extends Effect {
 
     protected ImageLoadCallback imageLoadCallback;
 
+    /**
+     * Pixel positions and colors of the current frame
+     */
+    private PointBuffer points;
+    private int[] pixels;
+
     public BaseImageEffect(EffectManager effectManager) {
         super(effectManager);
         type = EffectType.REPEATING;
@@ -137,6 +149,11 @@ public abstract class BaseImageEffect extends Effect {
         effectManager.loadImage(fileName, imageLoadCallback);
     }
 
+    @Override
+    public void preload() {
+        if (fileName != null) effectManager.preloadImage(fileName);
+    }
+
     public void loadFile(File file) {
         load(file.getName());
     }
@@ -164,69 +181,79 @@ public abstract class BaseImageEffect extends Effect {
         BufferedImage image = images[step];
 
         Location location = getLocation();
-        Vector v;
 
-        int pixel;
-        double rotX;
-        double rotY;
-        double rotZ;
+        // Collect the shown pixels, then rotate them all at once
+        if (points == null) points = new PointBuffer();
+        points.clear();
+        if (pixels == null) pixels = new int[64];
 
+        int pixel;
+        float halfWidth = (float) image.getWidth() / 2;
+        float halfHeight = (float) image.getHeight() / 2;
         for (int y = 0; y < image.getHeight(); y += stepY) {
             for (int x = 0; x < image.getWidth(); x += stepX) {
-                v = new Vector((float) image.getWidth() / 2 - x, (float) image.getHeight() / 2 - y, 0).multiply(size);
-
-                if (rotation != null) {
-                    VectorUtils.rotateVector(v, rotation.getX() * MathUtils.degreesToRadians, rotation.getY() * MathUtils.degreesToRadians, rotation.getZ() * MathUtils.degreesToRadians);
-                }
-
-                if (location != null) {
-                    if (orientPitch) VectorUtils.rotateAroundAxisX(v, Math.toRadians(location.getPitch()));
-                    if (orient) VectorUtils.rotateAroundAxisY(v, -location.getYaw() * MathUtils.degreesToRadians);
-                }
-
-                if (enableRotation) {
-                    rotX = 0;
-                    rotY = 0;
-                    rotZ = 0;
-
-                    switch (plane) {
-                        case X:
-                            rotX = angularVelocityX * rotationStep;
-                            break;
-                        case Y:
-                            rotY = angularVelocityY * rotationStep;
-                            break;
-                        case Z:
-                            rotZ = angularVelocityZ * rotationStep;
-                            break;
-                        case XY:
-                            rotX = angularVelocityX * rotationStep;
-                            rotY = angularVelocityY * rotationStep;
-                            break;
-                        case XZ:
-                            rotX = angularVelocityX * rotationStep;
-                            rotZ = angularVelocityZ * rotationStep;
-                            break;
-                        case XYZ:
-                            rotX = angularVelocityX * rotationStep;
-                            rotY = angularVelocityY * rotationStep;
-                            rotZ = angularVelocityZ * rotationStep;
-                            break;
-                        case YZ:
-                            rotY = angularVelocityY * rotationStep;
-                            rotZ = angularVelocityZ * step;
-                            break;
-                    }
-                    VectorUtils.rotateVector(v, rotX, rotY, rotZ);
-                }
-
                 pixel = image.getRGB(x, y);
-
                 if (transparency && (pixel >> 24) == 0) continue;
 
-                display(image, v, location, pixel);
+                int index = points.add(halfWidth - x, halfHeight - y, 0);
+                if (index == pixels.length) pixels = Arrays.copyOf(pixels, pixels.length * 2);
+                pixels[index] = pixel;
             }
         }
+
+        double[] matrix = PointTransformKernels.scale(PointTransformKernels.identity(), size);
+        if (rotation != null) {
+            PointTransformKernels.rotate(matrix, rotation.getX() * MathUtils.degreesToRadians, rotation.getY() * MathUtils.degreesToRadians, rotation.getZ() * MathUtils.degreesToRadians);
+        }
+
+        if (location != null) {
+            if (orientPitch) PointTransformKernels.rotate(matrix, Math.toRadians(location.getPitch()), 0, 0);
+            if (orient) PointTransformKernels.rotate(matrix, 0, -location.getYaw() * MathUtils.degreesToRadians, 0);
+        }
+
+        if (enableRotation) {
+            double rotX = 0;
+            double rotY = 0;
+            double rotZ = 0;
+
+            switch (plane) {
+                case X:
+                    rotX = angularVelocityX * rotationStep;
+                    break;
+                case Y:
+                    rotY = angularVelocityY * rotationStep;
+                    break;
+                case Z:
+                    rotZ = angularVelocityZ * rotationStep;
+                    break;
+                case XY:
+                    rotX = angularVelocityX * rotationStep;
+                    rotY = angularVelocityY * rotationStep;
+                    break;
+                case XZ:
+                    rotX = angularVelocityX * rotationStep;
+                    rotZ = angularVelocityZ * rotationStep;
+                    break;
+                case XYZ:
+                    rotX = angularVelocityX * rotationStep;
+                    rotY = angularVelocityY * rotationStep;
+                    rotZ = angularVelocityZ * rotationStep;
+                    break;
+                case YZ:
+                    rotY = angularVelocityY * rotationStep;
+                    rotZ = angularVelocityZ * step;
+                    break;
+            }
+            PointTransformKernels.rotate(matrix, rotX, rotY, rotZ);
+        }
+
+        points.transform(matrix);
+
+        Vector v = new Vector();
+        for (int i = 0; i < points.size(); i++) {
+            v.setX(points.getX(i)).setY(points.getY(i)).setZ(points.getZ(i));
+            display(image, v, location, pixels[i]);
+        }
         rotationStep++;
     }
 
@@ -31,6 +31,14 @@ public class CustomSound {
         this.customSound = null;
     }
 
+    public CustomSound(CustomSound other) {
+        this.sound = other.sound;
+        this.customSound = other.customSound;
+        this.volume = other.volume;
+        this.pitch = other.pitch;
+        this.range = other.range;
+    }
+
     /**
      * Format: <soundName>,<volume>,<pitch>,<range>
      */
@@ -0,0 +1,105 @@
+package de.slikey.effectlib.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bukkit.Location;
+
+/**
+ * Sends fewer particles to players far from them, set with {@link de.slikey.effectlib.EffectManager#setDistanceThinning(DistanceThinning)}.
+ *
+ * Each band keeps a share of the particles for viewers at or beyond its distance, closer viewers get every particle.
+ * Which particles are kept depends only on where they are, so a still effect looks the same from one frame to the next,
+ * and a viewer further away sees a subset of what a closer one sees.
+ * Particles of effects with a priority above 0 are never thinned.
+ */
+@SuppressWarnings({"unused"})
+public class DistanceThinning {
+
+    // Pairs of squared distance and keep ratio, sorted by distance and replaced as a whole
+    private volatile double[][] bands = new double[0][];
+    private final AtomicLong thinnedPackets = new AtomicLong();
+
+    /**
+     * Keep half the particles from 16 blocks away, and a quarter from 32 blocks.
+     */
+    public static DistanceThinning defaults() {
+        return new DistanceThinning().addBand(16, 0.5).addBand(32, 0.25);
+    }
+
+    /**
+     * @param distance the distance in blocks from which the band applies
+     * @param keepRatio the share of particles to send, between 0 and 1
+     */
+    public synchronized DistanceThinning addBand(double distance, double keepRatio) {
+        double[][] current = bands;
+        double[][] updated = Arrays.copyOf(current, current.length + 1);
+        double[] band = new double[] { distance * distance, Math.max(0, Math.min(1, keepRatio)) };
+
+        int index = current.length;
+        while (index > 0 && updated[index - 1][0] > band[0]) {
+            updated[index] = updated[index - 1];
+            index--;
+        }
+        updated[index] = band;
+        bands = updated;
+        return this;
+    }
+
+    public synchronized void clearBands() {
+        bands = new double[0][];
+    }
+
+    /**
+     * @return the share of particles sent to a viewer at this squared distance
+     */
+    public double getKeepRatio(double distanceSquared) {
+        double ratio = 1;
+        for (double[] band : bands) {
+            if (distanceSquared < band[0]) break;
+            ratio = band[1];
+        }
+        return ratio;
+    }
+
+    /**
+     * @return the squared distance from which particles are thinned, or -1 if they never are
+     */
+    public double getMinDistanceSquared() {
+        for (double[] band : bands) {
+            if (band[1] < 1) return band[0];
+        }
+        return -1;
+    }
+
+    /**
+     * A stable value between 0 and 1 for a particle location, compared against the keep ratio of each viewer.
+     */
+    public static double getRank(Location location) {
+        // Locations closer than 1/16 of a block get the same rank
+        long x = (long) Math.floor(location.getX() * 16);
+        long y = (long) Math.floor(location.getY() * 16);
+        long z = (long) Math.floor(location.getZ() * 16);
+        long hash = x * 0x9E3779B97F4A7C15L ^ y * 0xC2B2AE3D27D4EB4FL ^ z * 0x165667B19E3779F9L;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+    public void recordThinned(int packets) {
+        if (packets > 0) thinnedPackets.addAndGet(packets);
+    }
+
+    /**
+     * @return the particle packets not sent to far away viewers
+     */
+    public long getThinnedPackets() {
+        return thinnedPackets.get();
+    }
+
+    public void resetCounters() {
+        thinnedPackets.set(0);
+    }
+
+}
@@ -23,6 +23,9 @@ public class DynamicLocation {
     private Vector offset;
     private Vector relativeOffset;
     private Vector entityOffset;
+    private Vector rotatedOffset;
+
+    private final Orientation orientation = new Orientation();
 
     private Float yaw = null;
     private Float pitch = null;
@@ -95,6 +98,17 @@ public class DynamicLocation {
         return location;
     }
 
+    /**
+     * Get the cached rotation for the current direction of this location.
+     *
+     * This is only recomputed when the yaw or pitch changes, effects can use it
+     * to orient particles instead of rotating each one by yaw and pitch.
+     */
+    public Orientation getOrientation() {
+        if (location != null) orientation.update(location);
+        return orientation;
+    }
+
     protected Location getEntityLocation(Entity entity) {
         if (entity instanceof LivingEntity) return ((LivingEntity) entity).getEyeLocation();
         return entity.getLocation();
@@ -123,6 +137,15 @@ public class DynamicLocation {
         updateOffsets();
     }
 
+    public void updateFrom(double x, double y, double z) {
+        if (originalLocation != null) {
+            originalLocation.setX(x);
+            originalLocation.setY(y);
+            originalLocation.setZ(z);
+        }
+        updateOffsets();
+    }
+
     public void updateOffsets() {
         if (originalLocation == null || location == null) return;
         location.setX(originalLocation.getX());
@@ -130,7 +153,11 @@ public class DynamicLocation {
         location.setZ(originalLocation.getZ());
 
         if (offset != null) location.add(offset);
-        if (relativeOffset != null) location.add(VectorUtils.rotateVector(relativeOffset, location));
+        if (relativeOffset != null) {
+            if (rotatedOffset == null) rotatedOffset = new Vector();
+            orientation.update(location);
+            location.add(orientation.rotate(rotatedOffset.copy(relativeOffset)));
+        }
         if (entityOffset != null) location.add(entityOffset);
     }
 
@@ -149,6 +176,30 @@ public class DynamicLocation {
         if (updateLocation) updateFrom(currentLocation);
     }
 
+    /**
+     * Update from a shared per-tick snapshot of the entity, rather than looking up its location again.
+     *
+     * @param cache the cache to read from, if null this is the same as {@link #update()}
+     */
+    public void update(EntityLocationCache cache) {
+        if (cache == null) {
+            update();
+            return;
+        }
+        if (location == null || (!updateLocation && !updateDirection)) return;
+
+        Entity entityReference = entity == null ? null : entity.get();
+        if (entityReference == null) return;
+
+        EntityLocationCache.Snapshot snapshot = cache.getSnapshot(entityReference);
+        if (updateDirection) {
+            location.setYaw(snapshot.getYaw());
+            location.setPitch(snapshot.getPitch());
+            updateDirection();
+        }
+        if (updateLocation) updateFrom(snapshot.getX(), snapshot.getY(), snapshot.getZ());
+    }
+
     public void setUpdateDirection(boolean updateDirection) {
         this.updateDirection = updateDirection;
     }
@@ -166,6 +217,13 @@ public class DynamicLocation {
         this.yaw = yaw;
     }
 
+    /**
+     * @return true if this location was created to follow an entity, even once that entity is gone
+     */
+    public boolean isEntityBound() {
+        return entity != null;
+    }
+
     public boolean hasValidEntity() {
         Entity entity = this.getEntity();
         return entity != null && entity.isValid();
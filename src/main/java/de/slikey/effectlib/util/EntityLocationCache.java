@@ -0,0 +1,169 @@
+package de.slikey.effectlib.util;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.Iterator;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Shares one location lookup per entity per tick between all the effects bound to that entity.
+ *
+ * Snapshots are refreshed by a task on the main thread, and are immutable so async effects can
+ * read them safely. Entities that no effect has asked about for a while are dropped, and the
+ * refresh task stops when nothing is left to track.
+ */
+@SuppressWarnings({"unused"})
+public class EntityLocationCache implements Runnable, Disposable {
+
+    private static final int EXPIRE_TICKS = 40;
+
+    private final Plugin plugin;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final Location scratch = new Location(null, 0, 0, 0);
+    private volatile long tick = 0;
+    private BukkitTask task;
+    private boolean disposed;
+
+    public EntityLocationCache(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Get the most recent snapshot of an entity's location, eye location for living entities.
+     *
+     * The first request for an entity captures its location immediately, after that it is refreshed once per tick.
+     */
+    public Snapshot getSnapshot(Entity entity) {
+        UUID id = entity.getUniqueId();
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            entry = new Entry(entity, capture(entity, entity.getLocation()));
+            Entry existing = entries.putIfAbsent(id, entry);
+            if (existing != null) entry = existing;
+            start();
+        }
+        entry.lastAccess = tick;
+        return entry.snapshot;
+    }
+
+    @Override
+    public void run() {
+        tick++;
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            Entity entity = entry.entity.get();
+            if (entity == null || !entity.isValid() || tick - entry.lastAccess > EXPIRE_TICKS) {
+                it.remove();
+                continue;
+            }
+            entry.snapshot = capture(entity, entity.getLocation(scratch));
+        }
+
+        synchronized (this) {
+            if (entries.isEmpty()) stop();
+        }
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void dispose() {
+        disposed = true;
+        stop();
+        entries.clear();
+    }
+
+    private synchronized void start() {
+        if (task != null || disposed || !plugin.isEnabled()) return;
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this, 1, 1);
+    }
+
+    private synchronized void stop() {
+        if (task == null) return;
+        task.cancel();
+        task = null;
+    }
+
+    private static Snapshot capture(Entity entity, Location location) {
+        double y = location.getY();
+        if (entity instanceof LivingEntity) y += ((LivingEntity) entity).getEyeHeight();
+        return new Snapshot(location.getWorld(), location.getX(), y, location.getZ(), location.getYaw(), location.getPitch());
+    }
+
+    private static class Entry {
+        private final WeakReference<Entity> entity;
+        private volatile Snapshot snapshot;
+        private volatile long lastAccess;
+
+        private Entry(Entity entity, Snapshot snapshot) {
+            this.entity = new WeakReference<>(entity);
+            this.snapshot = snapshot;
+        }
+    }
+
+    /**
+     * An immutable copy of an entity's position and direction.
+     */
+    public static final class Snapshot {
+        private final World world;
+        private final double x;
+        private final double y;
+        private final double z;
+        private final float yaw;
+        private final float pitch;
+
+        public Snapshot(World world, double x, double y, double z, float yaw, float pitch) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.yaw = yaw;
+            this.pitch = pitch;
+        }
+
+        public World getWorld() {
+            return world;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+
+        public double getZ() {
+            return z;
+        }
+
+        public float getYaw() {
+            return yaw;
+        }
+
+        public float getPitch() {
+            return pitch;
+        }
+
+        public Location toLocation() {
+            return new Location(world, x, y, z, yaw, pitch);
+        }
+    }
+
+}
@@ -12,6 +12,7 @@ import javax.imageio.ImageReader;
 import java.net.HttpURLConnection;
 import java.awt.image.BufferedImage;
 import javax.imageio.stream.ImageInputStream;
+import java.io.UnsupportedEncodingException;
 
 import de.slikey.effectlib.EffectManager;
 
@@ -31,6 +32,28 @@ public class ImageLoadTask implements Runnable {
         this.effectManager = manager;
     }
 
+    /**
+     * The file an image is read from, for a URL this is where it is cached once downloaded.
+     *
+     * @return the file, or null for a URL if there is no cache folder
+     */
+    public static File getImageFile(EffectManager effectManager, String fileName) {
+        if (fileName.startsWith("http")) {
+            File cacheFolder = effectManager.getImageCacheFolder();
+            if (cacheFolder == null) return null;
+            try {
+                return new File(cacheFolder, URLEncoder.encode(fileName, "UTF-8"));
+            } catch (UnsupportedEncodingException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        if (fileName.startsWith(File.pathSeparator)) return new File(fileName);
+        File imageFile = new File(effectManager.getOwningPlugin().getDataFolder(), fileName);
+        if (!imageFile.exists()) imageFile = new File(fileName);
+        return imageFile;
+    }
+
     @Override
     public void run() {
         BufferedImage[] images;
@@ -52,8 +75,7 @@ public class ImageLoadTask implements Runnable {
                     }
                 }
 
-                String cacheFileName = URLEncoder.encode(fileName, "UTF-8");
-                imageFile = new File(cacheFolder, cacheFileName);
+                imageFile = getImageFile(effectManager, fileName);
                 if (!imageFile.exists()) {
                     URL imageUrl = new URL(fileName);
                     HttpURLConnection conn = (HttpURLConnection)imageUrl.openConnection();
@@ -75,11 +97,8 @@ public class ImageLoadTask implements Runnable {
                 callback.loaded(new BufferedImage[0]);
                 return;
             }
-        } else if (!fileName.startsWith(File.pathSeparator)) {
-            imageFile = new File(effectManager.getOwningPlugin().getDataFolder(), fileName);
-            if (!imageFile.exists()) imageFile = new File(fileName);
         } else {
-            imageFile = new File(fileName);
+            imageFile = getImageFile(effectManager, fileName);
         }
         if (!imageFile.exists()) {
             effectManager.getLogger().log(Level.WARNING, "Failed to find file " + fileName);
@@ -100,6 +100,150 @@ public final class MathUtils {
         return Sin.table[(int) ((degrees + 90) * degToIndex) & SIN_MASK];
     }
 
+    /**
+     * Accuracy tiers for the double precision trig functions, see {@link #fastSin(double, TrigAccuracy)}.
+     */
+    public enum TrigAccuracy {
+        /**
+         * Short polynomials, absolute error below 4e-7. Good enough for particle positions.
+         */
+        FAST,
+        /**
+         * Long polynomials, absolute error below 1e-13.
+         */
+        PRECISE,
+        /**
+         * Delegates to {@link Math#sin(double)} and {@link Math#cos(double)}.
+         */
+        EXACT
+    }
+
+    /**
+     * The accuracy of {@link #fastSin(double)}, {@link #fastCos(double)} and {@link #fastSinCos(double, double[])}.
+     * It is fixed, as every plugin using the library shares these functions, pass a tier to choose another.
+     */
+    static public final TrigAccuracy DEFAULT_TRIG_ACCURACY = TrigAccuracy.PRECISE;
+
+    // Cody-Waite split of PI / 2, the high part has 33 significant bits so k * PIO2_HI is exact for |k| < 2^20
+    static private final double TWO_OVER_PI = 6.36619772367581382433e-01;
+    static private final double PIO2_HI = 1.57079632673412561417e+00;
+    static private final double PIO2_LO = 6.07710050650619224932e-11;
+    static private final double TRIG_REDUCTION_LIMIT = (1 << 19) * (Math.PI / 2);
+
+    static private final double S1 = -1.0 / 6;
+    static private final double S2 = 1.0 / 120;
+    static private final double S3 = -1.0 / 5040;
+    static private final double S4 = 1.0 / 362880;
+    static private final double S5 = -1.0 / 39916800;
+    static private final double S6 = 1.0 / 6227020800.0;
+
+    static private final double C1 = -1.0 / 2;
+    static private final double C2 = 1.0 / 24;
+    static private final double C3 = -1.0 / 720;
+    static private final double C4 = 1.0 / 40320;
+    static private final double C5 = -1.0 / 3628800;
+    static private final double C6 = 1.0 / 479001600;
+    static private final double C7 = -1.0 / 87178291200.0;
+
+    /**
+     * Returns the sine in radians, using the default accuracy.
+     */
+    static public double fastSin(double radians) {
+        return fastSin(radians, DEFAULT_TRIG_ACCURACY);
+    }
+
+    /**
+     * Returns the cosine in radians, using the default accuracy.
+     */
+    static public double fastCos(double radians) {
+        return fastCos(radians, DEFAULT_TRIG_ACCURACY);
+    }
+
+    /**
+     * Computes the sine and cosine in radians at once, using the default accuracy.
+     *
+     * @param out receives the sine at index 0 and the cosine at index 1
+     */
+    static public void fastSinCos(double radians, double[] out) {
+        fastSinCos(radians, out, DEFAULT_TRIG_ACCURACY);
+    }
+
+    /**
+     * Returns the sine in radians.
+     * <p>
+     * Unlike {@link #sin(float)} this works in double precision and reduces the argument
+     * to [-PI/4, PI/4] first, so accuracy does not degrade as the angle grows. Arguments
+     * too large to reduce cheaply fall back to {@link Math#sin(double)}.
+     */
+    static public double fastSin(double radians, TrigAccuracy accuracy) {
+        if (accuracy == TrigAccuracy.EXACT || Math.abs(radians) > TRIG_REDUCTION_LIMIT) return Math.sin(radians);
+
+        double k = Math.rint(radians * TWO_OVER_PI);
+        double r = radians - k * PIO2_HI - k * PIO2_LO;
+        int quadrant = (int) k;
+        boolean precise = accuracy == TrigAccuracy.PRECISE;
+
+        // Even quadrants use the sine polynomial and odd ones the cosine, quadrants 2 and 3 flip the sign
+        double value = (quadrant & 1) == 0 ? reducedSin(r, precise) : reducedCos(r, precise);
+        return (quadrant & 2) == 0 ? value : -value;
+    }
+
+    /**
+     * Returns the cosine in radians.
+     *
+     * @see #fastSin(double, TrigAccuracy)
+     */
+    static public double fastCos(double radians, TrigAccuracy accuracy) {
+        if (accuracy == TrigAccuracy.EXACT || Math.abs(radians) > TRIG_REDUCTION_LIMIT) return Math.cos(radians);
+
+        double k = Math.rint(radians * TWO_OVER_PI);
+        double r = radians - k * PIO2_HI - k * PIO2_LO;
+        int quadrant = (int) k + 1;
+        boolean precise = accuracy == TrigAccuracy.PRECISE;
+
+        // cos(x) = sin(x + PI / 2), so this is the sine selection shifted by one quadrant
+        double value = (quadrant & 1) == 0 ? reducedSin(r, precise) : reducedCos(r, precise);
+        return (quadrant & 2) == 0 ? value : -value;
+    }
+
+    /**
+     * Computes the sine and cosine in radians at once, sharing the argument reduction.
+     *
+     * @param out receives the sine at index 0 and the cosine at index 1
+     * @see #fastSin(double, TrigAccuracy)
+     */
+    static public void fastSinCos(double radians, double[] out, TrigAccuracy accuracy) {
+        if (accuracy == TrigAccuracy.EXACT || Math.abs(radians) > TRIG_REDUCTION_LIMIT) {
+            out[0] = Math.sin(radians);
+            out[1] = Math.cos(radians);
+            return;
+        }
+
+        double k = Math.rint(radians * TWO_OVER_PI);
+        double r = radians - k * PIO2_HI - k * PIO2_LO;
+        boolean precise = accuracy == TrigAccuracy.PRECISE;
+        int quadrant = (int) k;
+        double sin = reducedSin(r, precise);
+        double cos = reducedCos(r, precise);
+        boolean swap = (quadrant & 1) != 0;
+        double sinValue = swap ? cos : sin;
+        double cosValue = swap ? sin : cos;
+        out[0] = (quadrant & 2) == 0 ? sinValue : -sinValue;
+        out[1] = ((quadrant + 1) & 2) == 0 ? cosValue : -cosValue;
+    }
+
+    static private double reducedSin(double r, boolean precise) {
+        double r2 = r * r;
+        if (precise) return r + r * r2 * (S1 + r2 * (S2 + r2 * (S3 + r2 * (S4 + r2 * (S5 + r2 * S6)))));
+        return r + r * r2 * (S1 + r2 * (S2 + r2 * S3));
+    }
+
+    static private double reducedCos(double r, boolean precise) {
+        double r2 = r * r;
+        if (precise) return 1 + r2 * (C1 + r2 * (C2 + r2 * (C3 + r2 * (C4 + r2 * (C5 + r2 * (C6 + r2 * C7))))));
+        return 1 + r2 * (C1 + r2 * (C2 + r2 * (C3 + r2 * C4)));
+    }
+
     static private final int ATAN2_BITS = 7; // Adjust for accuracy.
     static private final int ATAN2_BITS2 = ATAN2_BITS << 1;
     static private final int ATAN2_MASK = ~(-1 << ATAN2_BITS2);
@@ -0,0 +1,156 @@
+package de.slikey.effectlib.util;
+
+import org.bukkit.Location;
+import org.bukkit.util.Vector;
+
+/**
+ * A cached rotation built from a yaw and pitch, stored as a quaternion and the basis vectors derived from it.
+ *
+ * Rotating by this is equivalent to {@link VectorUtils#rotateVector(Vector, float, float)}, but the trig is only
+ * done when the yaw or pitch actually change, so stationary or slow-turning sources rotate with a few multiplies.
+ */
+@SuppressWarnings({"unused"})
+public class Orientation {
+
+    private float yaw = Float.NaN;
+    private float pitch = Float.NaN;
+
+    // Quaternion
+    private double w = 1;
+    private double x;
+    private double y;
+    private double z;
+
+    // Images of the X, Y and Z unit vectors
+    private double forwardX = 1, forwardY, forwardZ;
+    private double upX, upY = 1, upZ;
+    private double rightX, rightY, rightZ = 1;
+
+    /**
+     * Update this orientation from a Location's direction.
+     *
+     * @return true if the direction changed
+     */
+    public boolean update(Location location) {
+        return update(location.getYaw(), location.getPitch());
+    }
+
+    /**
+     * Update this orientation, recomputing the rotation only if yaw or pitch changed.
+     *
+     * @return true if the direction changed
+     */
+    public boolean update(float yaw, float pitch) {
+        if (yaw == this.yaw && pitch == this.pitch) return false;
+        this.yaw = yaw;
+        this.pitch = pitch;
+
+        // Same angles as VectorUtils.rotateVector: pitch about Z, then yaw about Y
+        double halfYaw = Math.toRadians(-(yaw + 90)) / 2;
+        double halfPitch = Math.toRadians(-pitch) / 2;
+        double cy = MathUtils.fastCos(halfYaw);
+        double sy = MathUtils.fastSin(halfYaw);
+        double cp = MathUtils.fastCos(halfPitch);
+        double sp = MathUtils.fastSin(halfPitch);
+
+        w = cy * cp;
+        x = sy * sp;
+        y = sy * cp;
+        z = cy * sp;
+
+        double xx = x * x, yy = y * y, zz = z * z;
+        double xy = x * y, xz = x * z, yz = y * z;
+        double wx = w * x, wy = w * y, wz = w * z;
+
+        forwardX = 1 - 2 * (yy + zz);
+        forwardY = 2 * (xy + wz);
+        forwardZ = 2 * (xz - wy);
+
+        upX = 2 * (xy - wz);
+        upY = 1 - 2 * (xx + zz);
+        upZ = 2 * (yz + wx);
+
+        rightX = 2 * (xz + wy);
+        rightY = 2 * (yz - wx);
+        rightZ = 1 - 2 * (xx + yy);
+        return true;
+    }
+
+    /**
+     * Rotate a vector in place.
+     *
+     * @return the same vector, for chaining
+     */
+    public Vector rotate(Vector vector) {
+        double vx = vector.getX();
+        double vy = vector.getY();
+        double vz = vector.getZ();
+        return vector
+            .setX(vx * forwardX + vy * upX + vz * rightX)
+            .setY(vx * forwardY + vy * upY + vz * rightY)
+            .setZ(vx * forwardZ + vy * upZ + vz * rightZ);
+    }
+
+    /**
+     * Write this rotation into the 3x3 part of a 3x4 row-major matrix,
+     * as used by {@link de.slikey.effectlib.math.PointTransformKernel}.
+     */
+    public double[] toMatrix(double[] matrix) {
+        matrix[0] = forwardX;
+        matrix[1] = upX;
+        matrix[2] = rightX;
+        matrix[4] = forwardY;
+        matrix[5] = upY;
+        matrix[6] = rightY;
+        matrix[8] = forwardZ;
+        matrix[9] = upZ;
+        matrix[10] = rightZ;
+        return matrix;
+    }
+
+    public float getYaw() {
+        return yaw;
+    }
+
+    public float getPitch() {
+        return pitch;
+    }
+
+    public double getW() {
+        return w;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    /**
+     * The direction the local X axis points to, which is the look direction.
+     */
+    public Vector getForward() {
+        return new Vector(forwardX, forwardY, forwardZ);
+    }
+
+    /**
+     * The direction the local Y axis points to.
+     */
+    public Vector getUp() {
+        return new Vector(upX, upY, upZ);
+    }
+
+    /**
+     * The direction the local Z axis points to.
+     */
+    public Vector getRight() {
+        return new Vector(rightX, rightY, rightZ);
+    }
+
+}
@@ -0,0 +1,64 @@
+package de.slikey.effectlib.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Combines particles an effect displays close together in one iteration, set with
+ * {@link de.slikey.effectlib.EffectManager#setParticleClustering(ParticleClustering)}.
+ *
+ * Positions are grouped into cubes of the voxel size. Particles that look the same and fall in the same voxel are sent
+ * as one particle call, at their average position with an amount and offset that spread them over where they were.
+ * Particles displayed more than once at the same position, such as shared corners, are sent once.
+ * Particles with an amount of 0 use their offset as a direction or color, so those are only combined when at the same position.
+ */
+@SuppressWarnings({"unused"})
+public class ParticleClustering {
+
+    private volatile double voxelSize;
+    private final AtomicLong savedCalls = new AtomicLong();
+    private final AtomicLong droppedDuplicates = new AtomicLong();
+
+    public ParticleClustering() {
+        this(0.1);
+    }
+
+    /**
+     * @param voxelSize the size in blocks of the cubes particles are grouped in
+     */
+    public ParticleClustering(double voxelSize) {
+        setVoxelSize(voxelSize);
+    }
+
+    public void setVoxelSize(double voxelSize) {
+        this.voxelSize = Math.max(0.001, voxelSize);
+    }
+
+    public double getVoxelSize() {
+        return voxelSize;
+    }
+
+    public void recordSaved(int calls, int duplicates) {
+        if (calls > 0) savedCalls.addAndGet(calls);
+        if (duplicates > 0) droppedDuplicates.addAndGet(duplicates);
+    }
+
+    /**
+     * @return the particle calls saved, each is one packet less for every player in range
+     */
+    public long getSavedCalls() {
+        return savedCalls.get();
+    }
+
+    /**
+     * @return the particles not sent because one was already displayed at the same position
+     */
+    public long getDroppedDuplicates() {
+        return droppedDuplicates.get();
+    }
+
+    public void resetCounters() {
+        savedCalls.set(0);
+        droppedDuplicates.set(0);
+    }
+
+}
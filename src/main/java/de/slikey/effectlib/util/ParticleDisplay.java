@@ -11,6 +11,8 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 import de.slikey.effectlib.EffectManager;
+import de.slikey.effectlib.ParticleBudget;
+import de.slikey.effectlib.PlayerParticleLimit;
 import de.slikey.effectlib.util.versions.ParticleDisplay_12;
 import de.slikey.effectlib.util.versions.ParticleDisplay_13;
 import de.slikey.effectlib.util.versions.ParticleDisplay_17;
@@ -25,15 +27,36 @@ public abstract class ParticleDisplay {
     public abstract void display(Particle particle, ParticleOptions options, Location center, double range, List<Player> targetPlayers);
 
     protected void spawnParticle(Particle particle, ParticleOptions options, Location center, double range, List<Player> targetPlayers) {
+        int packets = 0;
+        int thinned = 0;
+        int culled = 0;
+        DistanceThinning thinning = manager == null || options.priority > 0 ? null : manager.getDistanceThinning();
+        ViewCulling culling = manager == null || options.priority > 0 ? null : manager.getViewCulling();
+        if (culling != null && !culling.canCull(particle)) culling = null;
+        double thinFrom = thinning == null ? -1 : thinning.getMinDistanceSquared();
+        double rank = thinFrom < 0 ? 0 : DistanceThinning.getRank(center);
+        PlayerParticleLimit limit = PlayerParticleLimit.getInstance();
+        boolean limiting = limit.isEnabled();
         try {
             if (targetPlayers == null) {
                 double squared = range * range;
                 for (final Player player : Bukkit.getOnlinePlayers()) {
                     if (manager.isPlayerIgnored(player)) continue;
                     if (player.getWorld() != center.getWorld()) continue;
-                    if (player.getLocation().distanceSquared(center) > squared) continue;
+                    double distanceSquared = player.getLocation().distanceSquared(center);
+                    if (distanceSquared > squared) continue;
+                    if (thinFrom >= 0 && distanceSquared >= thinFrom && rank >= thinning.getKeepRatio(distanceSquared)) {
+                        thinned++;
+                        continue;
+                    }
+                    if (culling != null && culling.isCulled(player, center)) {
+                        culled++;
+                        continue;
+                    }
+                    if (limiting && !limit.allow(player, options.priority, options.amount)) continue;
 
                     player.spawnParticle(particle, center, options.amount, options.offsetX, options.offsetY, options.offsetZ, options.speed, options.data);
+                    packets++;
                     displayFakeBlock(player, center, options);
                 }
                 return;
@@ -41,12 +64,29 @@ public abstract class ParticleDisplay {
 
             for (final Player player : targetPlayers) {
                 if (manager.isPlayerIgnored(player)) continue;
+                if (thinFrom >= 0 && player.getWorld() == center.getWorld()) {
+                    double distanceSquared = player.getLocation().distanceSquared(center);
+                    if (distanceSquared >= thinFrom && rank >= thinning.getKeepRatio(distanceSquared)) {
+                        thinned++;
+                        continue;
+                    }
+                }
+                if (culling != null && player.getWorld() == center.getWorld() && culling.isCulled(player, center)) {
+                    culled++;
+                    continue;
+                }
+                if (limiting && !limit.allow(player, options.priority, options.amount)) continue;
                 player.spawnParticle(particle, center, options.amount, options.offsetX, options.offsetY, options.offsetZ, options.speed, options.data);
+                packets++;
                 displayFakeBlock(player, center, options);
             }
 
         } catch (Exception ex) {
             if (manager != null) manager.onError(ex);
+        } finally {
+            ParticleBudget.getInstance().recordPackets(packets);
+            if (thinning != null) thinning.recordThinned(thinned);
+            if (culling != null) culling.recordCulled(culled);
         }
     }
 
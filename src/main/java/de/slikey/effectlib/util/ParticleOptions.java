@@ -28,6 +28,11 @@ public class ParticleOptions {
 
     public DynamicLocation target;
 
+    /**
+     * The {@link de.slikey.effectlib.Effect#priority} of the effect displaying the particle.
+     */
+    public int priority;
+
     public int shriekDelay;
     public float sculkChargeRotation;
 
@@ -35,6 +35,76 @@ public final class RandomUtils {
         return new Vector(x, y, z);
     }
 
+    /**
+     * Fill a buffer with random unit vectors, stored as interleaved x, y, z triples.
+     *
+     * This avoids allocating a Vector per particle, and uses the fast trig tables in MathUtils.
+     *
+     * @param buffer the buffer to fill, must hold at least count * 3 values
+     * @param count the number of vectors to generate
+     */
+    public static void getRandomVectors(double[] buffer, int count) {
+        getRandomVectors(random, buffer, count);
+    }
+
+    public static void getRandomVectors(Random random, double[] buffer, int count) {
+        for (int i = 0, j = 0; i < count; i++, j += 3) {
+            float theta = random.nextFloat() * MathUtils.PI2;
+            double z = random.nextDouble() * 2 - 1;
+            double r = Math.sqrt(1 - z * z);
+
+            buffer[j] = r * MathUtils.cos(theta);
+            buffer[j + 1] = r * MathUtils.sin(theta);
+            buffer[j + 2] = z;
+        }
+    }
+
+    /**
+     * Fill a buffer with random unit vectors on the XZ plane, stored as interleaved x, z pairs.
+     *
+     * @param buffer the buffer to fill, must hold at least count * 2 values
+     * @param count the number of vectors to generate
+     */
+    public static void getRandomCircleVectors(double[] buffer, int count) {
+        getRandomCircleVectors(random, buffer, count);
+    }
+
+    public static void getRandomCircleVectors(Random random, double[] buffer, int count) {
+        for (int i = 0, j = 0; i < count; i++, j += 2) {
+            float angle = random.nextFloat() * MathUtils.PI2;
+            buffer[j] = MathUtils.cos(angle);
+            buffer[j + 1] = MathUtils.sin(angle);
+        }
+    }
+
+    /**
+     * Fill a buffer with random angles between 0 and 2 * PI.
+     *
+     * @param buffer the buffer to fill, must hold at least count values
+     * @param count the number of angles to generate
+     */
+    public static void getRandomAngles(double[] buffer, int count) {
+        getRandomAngles(random, buffer, count);
+    }
+
+    public static void getRandomAngles(Random random, double[] buffer, int count) {
+        for (int i = 0; i < count; i++) {
+            buffer[i] = random.nextDouble() * 2 * Math.PI;
+        }
+    }
+
+    /**
+     * Make sure a buffer can hold the given number of values, reallocating it if needed.
+     *
+     * @param buffer the current buffer, may be null
+     * @param size the number of values needed
+     * @return the buffer, or a new larger one
+     */
+    public static double[] ensureCapacity(double[] buffer, int size) {
+        if (buffer != null && buffer.length >= size) return buffer;
+        return new double[Math.max(size, 0)];
+    }
+
     public static Vector getRandomFlatVector() {
         double x, z;
         x = random.nextDouble() * 2 - 1;
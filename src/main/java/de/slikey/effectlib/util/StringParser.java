@@ -1,6 +1,8 @@
 package de.slikey.effectlib.util;
 
+import java.util.Map;
 import java.awt.Font;
+import java.util.LinkedHashMap;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.FontMetrics;
@@ -17,10 +19,36 @@ import java.awt.font.FontRenderContext;
  */
 public final class StringParser {
 
+    private static final int MAX_CACHED_IMAGES = 64;
+    private static final Map<String, BufferedImage> imageCache = new LinkedHashMap<String, BufferedImage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+            return size() > MAX_CACHED_IMAGES;
+        }
+    };
+
     private StringParser() {
 
     }
 
+    /**
+     * Like {@link #stringToBufferedImage(Font, String)}, but reuses images of recently rendered text.
+     * The returned image is shared and must not be modified.
+     */
+    public static BufferedImage getImage(Font font, String s) {
+        String key = font.getName() + ':' + font.getStyle() + ':' + font.getSize2D() + ':' + s;
+        synchronized (imageCache) {
+            BufferedImage image = imageCache.get(key);
+            if (image != null) return image;
+        }
+
+        BufferedImage image = stringToBufferedImage(font, s);
+        synchronized (imageCache) {
+            imageCache.put(key, image);
+        }
+        return image;
+    }
+
     public static BufferedImage stringToBufferedImage(Font font, String s) {
         BufferedImage img = new BufferedImage(1, 1, BufferedImage.TYPE_4BYTE_ABGR);
         Graphics g = img.getGraphics();
@@ -10,8 +10,8 @@ public final class VectorUtils {
 
     public static Vector rotateAroundAxisX(Vector vector, double angle) {
         double y, z, cos, sin;
-        cos = Math.cos(angle);
-        sin = Math.sin(angle);
+        cos = MathUtils.fastCos(angle);
+        sin = MathUtils.fastSin(angle);
         y = vector.getY() * cos - vector.getZ() * sin;
         z = vector.getY() * sin + vector.getZ() * cos;
         return vector.setY(y).setZ(z);
@@ -19,8 +19,8 @@ public final class VectorUtils {
 
     public static Vector rotateAroundAxisY(Vector vector, double angle) {
         double x, z, cos, sin;
-        cos = Math.cos(angle);
-        sin = Math.sin(angle);
+        cos = MathUtils.fastCos(angle);
+        sin = MathUtils.fastSin(angle);
         x = vector.getX() * cos + vector.getZ() * sin;
         z = vector.getX() * -sin + vector.getZ() * cos;
         return vector.setX(x).setZ(z);
@@ -28,8 +28,8 @@ public final class VectorUtils {
 
     public static Vector rotateAroundAxisZ(Vector vector, double angle) {
         double x, y, cos, sin;
-        cos = Math.cos(angle);
-        sin = Math.sin(angle);
+        cos = MathUtils.fastCos(angle);
+        sin = MathUtils.fastSin(angle);
         x = vector.getX() * cos - vector.getY() * sin;
         y = vector.getX() * sin + vector.getY() * cos;
         return vector.setX(x).setY(y);
@@ -77,10 +77,10 @@ public final class VectorUtils {
         double yaw = Math.toRadians(-1 * (yawDegrees + 90));
         double pitch = Math.toRadians(-pitchDegrees);
 
-        double cosYaw = Math.cos(yaw);
-        double cosPitch = Math.cos(pitch);
-        double sinYaw = Math.sin(yaw);
-        double sinPitch = Math.sin(pitch);
+        double cosYaw = MathUtils.fastCos(yaw);
+        double cosPitch = MathUtils.fastCos(pitch);
+        double sinYaw = MathUtils.fastSin(yaw);
+        double sinPitch = MathUtils.fastSin(pitch);
 
         double initialX, initialY, initialZ;
         double x, y, z;
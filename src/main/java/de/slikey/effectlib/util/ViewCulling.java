@@ -0,0 +1,128 @@
+package de.slikey.effectlib.util;
+
+import java.util.Set;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.util.Vector;
+import org.bukkit.entity.Player;
+
+/**
+ * Skips sending particles to players who are looking away from them, set with {@link de.slikey.effectlib.EffectManager#setViewCulling(ViewCulling)}.
+ *
+ * A particle is culled for a viewer when it is further than the minimum distance and outside a cone around where
+ * the viewer is looking. The cone should be wider than the client's field of view, so turning around does not
+ * show missing particles at the edges.
+ * Only particles that fade quickly are culled, a viewer turning towards a longer lived particle would see it pop in.
+ * Particles of effects with a priority above 0 are never culled.
+ */
+@SuppressWarnings({"unused"})
+public class ViewCulling {
+
+    private static final String[] SHORT_LIVED = {
+        "REDSTONE", "DUST", "DUST_COLOR_TRANSITION", "CRIT", "CRIT_MAGIC", "ENCHANTED_HIT", "FLAME", "SOUL_FIRE_FLAME",
+        "SPELL", "EFFECT", "SPELL_INSTANT", "INSTANT_EFFECT", "SPELL_MOB", "ENTITY_EFFECT", "SPELL_MOB_AMBIENT", "AMBIENT_ENTITY_EFFECT",
+        "SPELL_WITCH", "WITCH", "SMOKE_NORMAL", "SMOKE", "FIREWORKS_SPARK", "FIREWORK", "ELECTRIC_SPARK", "WAX_ON", "WAX_OFF", "SCRAPE"
+    };
+
+    private final Set<Particle> particles = Collections.newSetFromMap(new ConcurrentHashMap<Particle, Boolean>());
+    private final AtomicLong culledPackets = new AtomicLong();
+    private volatile double fieldOfView;
+    private volatile double minCos;
+    private volatile double minDistanceSquared;
+
+    /**
+     * Cull the common short-lived particles outside a 150 degree cone, from 4 blocks away.
+     */
+    public ViewCulling() {
+        setFieldOfView(150);
+        setMinDistance(4);
+        for (String name : SHORT_LIVED) {
+            try {
+                particles.add(Particle.valueOf(name));
+            } catch (IllegalArgumentException ignored) {
+                // Not in this server version
+            }
+        }
+    }
+
+    /**
+     * @param fieldOfView the full angle of the cone in degrees, particles outside of it are culled
+     */
+    public void setFieldOfView(double fieldOfView) {
+        this.fieldOfView = Math.max(0, Math.min(360, fieldOfView));
+        minCos = Math.cos(Math.toRadians(this.fieldOfView / 2));
+    }
+
+    public double getFieldOfView() {
+        return fieldOfView;
+    }
+
+    /**
+     * @param minDistance particles closer than this many blocks to the viewer's eyes are never culled
+     */
+    public void setMinDistance(double minDistance) {
+        minDistanceSquared = minDistance * minDistance;
+    }
+
+    public double getMinDistance() {
+        return Math.sqrt(minDistanceSquared);
+    }
+
+    public void addParticle(Particle particle) {
+        particles.add(particle);
+    }
+
+    public void removeParticle(Particle particle) {
+        particles.remove(particle);
+    }
+
+    public void clearParticles() {
+        particles.clear();
+    }
+
+    /**
+     * @return true if the particle fades quickly enough to be culled
+     */
+    public boolean canCull(Particle particle) {
+        return particles.contains(particle);
+    }
+
+    /**
+     * Check whether a particle is out of a player's view, assuming it is in the player's world.
+     */
+    public boolean isCulled(Player player, Location center) {
+        Location eye = player.getEyeLocation();
+        double x = center.getX() - eye.getX();
+        double y = center.getY() - eye.getY();
+        double z = center.getZ() - eye.getZ();
+        double lengthSquared = x * x + y * y + z * z;
+        if (lengthSquared < minDistanceSquared) return false;
+
+        Vector direction = eye.getDirection();
+        double dot = x * direction.getX() + y * direction.getY() + z * direction.getZ();
+        // Compare against the cone without a square root, keeping the sign of the dot product
+        double cos = minCos;
+        if (cos >= 0) return dot < 0 || dot * dot < cos * cos * lengthSquared;
+        return dot < 0 && dot * dot > cos * cos * lengthSquared;
+    }
+
+    public void recordCulled(int packets) {
+        if (packets > 0) culledPackets.addAndGet(packets);
+    }
+
+    /**
+     * @return the particle packets not sent to players looking away
+     */
+    public long getCulledPackets() {
+        return culledPackets.get();
+    }
+
+    public void resetCounters() {
+        culledPackets.set(0);
+    }
+
+}
@@ -0,0 +1,228 @@
+package de.slikey.effectlib.processor;
+
+import java.util.Set;
+import java.util.List;
+import java.util.HashSet;
+import java.util.ArrayList;
+import java.io.Writer;
+import java.io.IOException;
+import javax.tools.Diagnostic;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.util.Types;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.element.ExecutableElement;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.SupportedAnnotationTypes;
+
+/**
+ * Generates an EffectBinder for every concrete Effect in de.slikey.effectlib.effect,
+ * plus the GeneratedEffectBinders index that EffectBinders loads at startup.
+ *
+ * Each binder creates its effect and reads or assigns its public fields directly,
+ * so EffectManager does not need reflection for the built-in effects.
+ *
+ * The generated code sticks to Java 7 syntax since the Maven build still targets it.
+ */
+@SupportedAnnotationTypes("*")
+public class EffectBinderProcessor extends AbstractProcessor {
+
+    private static final String EFFECT_PACKAGE = "de.slikey.effectlib.effect";
+    private static final String BINDER_PACKAGE = "de.slikey.effectlib.binder";
+    private static final String EFFECT_CLASS = "de.slikey.effectlib.Effect";
+    private static final String MANAGER_CLASS = "de.slikey.effectlib.EffectManager";
+    private static final String BINDER_CLASS = BINDER_PACKAGE + ".EffectBinder";
+    private static final String INDEX_CLASS = "GeneratedEffectBinders";
+
+    private final List<String> binders = new ArrayList<>();
+    private boolean indexWritten;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver() || indexWritten) return false;
+
+        Elements elements = processingEnv.getElementUtils();
+        TypeElement effectType = elements.getTypeElement(EFFECT_CLASS);
+        if (effectType == null) return false;
+
+        for (Element element : roundEnv.getRootElements()) {
+            if (element.getKind() != ElementKind.CLASS) continue;
+
+            TypeElement type = (TypeElement) element;
+            if (!isBindable(type, effectType)) continue;
+
+            try {
+                writeBinder(type);
+            } catch (IOException ex) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write EffectBinder: " + ex.getMessage(), type);
+            }
+        }
+
+        // All built-in effects are compiled together, so they all show up in the same round
+        if (!binders.isEmpty()) {
+            try {
+                writeIndex();
+            } catch (IOException ex) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + INDEX_CLASS + ": " + ex.getMessage());
+            }
+            indexWritten = true;
+        }
+
+        return false;
+    }
+
+    private boolean isBindable(TypeElement type, TypeElement effectType) {
+        Elements elements = processingEnv.getElementUtils();
+        Types types = processingEnv.getTypeUtils();
+
+        if (!elements.getPackageOf(type).getQualifiedName().contentEquals(EFFECT_PACKAGE)) return false;
+        if (!type.getModifiers().contains(Modifier.PUBLIC) || type.getModifiers().contains(Modifier.ABSTRACT)) return false;
+        if (!types.isSubtype(types.erasure(type.asType()), types.erasure(effectType.asType()))) return false;
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (!constructor.getModifiers().contains(Modifier.PUBLIC)) continue;
+            List<? extends VariableElement> parameters = constructor.getParameters();
+            if (parameters.size() != 1) continue;
+            if (types.erasure(parameters.get(0).asType()).toString().equals(MANAGER_CLASS)) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Collect the public instance fields the same way Class.getField would see them,
+     * a field declared in a subclass hides one of the same name further up.
+     */
+    private List<VariableElement> getPublicFields(TypeElement type) {
+        List<VariableElement> fields = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+
+        TypeElement current = type;
+        while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)) continue;
+                if (names.add(field.getSimpleName().toString())) fields.add(field);
+            }
+
+            TypeMirror superclass = current.getSuperclass();
+            if (superclass.getKind() != TypeKind.DECLARED) break;
+            current = (TypeElement) processingEnv.getTypeUtils().asElement(superclass);
+        }
+
+        return fields;
+    }
+
+    private void writeBinder(TypeElement type) throws IOException {
+        String effectName = type.getQualifiedName().toString();
+        String binderName = type.getSimpleName() + "Binder";
+        List<VariableElement> fields = getPublicFields(type);
+
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(BINDER_PACKAGE).append(";\n\n");
+        source.append("// Generated by ").append(getClass().getName()).append(", do not edit.\n");
+        source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        source.append("public final class ").append(binderName).append(" implements ").append(BINDER_CLASS).append(" {\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public Class<? extends ").append(EFFECT_CLASS).append("> getEffectClass() {\n");
+        source.append("        return ").append(effectName).append(".class;\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public ").append(EFFECT_CLASS).append(" create(").append(MANAGER_CLASS).append(" effectManager) {\n");
+        source.append("        return new ").append(effectName).append("(effectManager);\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public Class<?> getFieldType(String field) {\n");
+        source.append("        switch (field) {\n");
+        for (VariableElement field : fields) {
+            source.append("            case \"").append(field.getSimpleName()).append("\": return ").append(getTypeName(field, false)).append(".class;\n");
+        }
+        source.append("            default: return null;\n");
+        source.append("        }\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public Object get(").append(EFFECT_CLASS).append(" effect, String field) {\n");
+        source.append("        ").append(effectName).append(" target = (").append(effectName).append(") effect;\n");
+        source.append("        switch (field) {\n");
+        for (VariableElement field : fields) {
+            source.append("            case \"").append(field.getSimpleName()).append("\": return target.").append(field.getSimpleName()).append(";\n");
+        }
+        source.append("            default: throw new IllegalArgumentException(\"No field \" + field + \" in ").append(type.getSimpleName()).append("\");\n");
+        source.append("        }\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public boolean set(").append(EFFECT_CLASS).append(" effect, String field, Object value) {\n");
+        source.append("        ").append(effectName).append(" target = (").append(effectName).append(") effect;\n");
+        source.append("        switch (field) {\n");
+        for (VariableElement field : fields) {
+            if (field.getModifiers().contains(Modifier.FINAL)) continue;
+            source.append("            case \"").append(field.getSimpleName()).append("\": target.").append(field.getSimpleName())
+                .append(" = (").append(getTypeName(field, true)).append(") value; return true;\n");
+        }
+        source.append("            default: return false;\n");
+        source.append("        }\n");
+        source.append("    }\n\n");
+
+        source.append("}\n");
+
+        String qualifiedName = BINDER_PACKAGE + "." + binderName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.toString());
+        }
+        binders.add(qualifiedName);
+    }
+
+    private void writeIndex() throws IOException {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(BINDER_PACKAGE).append(";\n\n");
+        source.append("// Generated by ").append(getClass().getName()).append(", do not edit.\n");
+        source.append("public final class ").append(INDEX_CLASS).append(" {\n\n");
+        source.append("    private ").append(INDEX_CLASS).append("() {\n");
+        source.append("    }\n\n");
+        source.append("    public static ").append(BINDER_CLASS).append("[] getBinders() {\n");
+        source.append("        return new ").append(BINDER_CLASS).append("[] {\n");
+        for (String binder : binders) {
+            source.append("            new ").append(binder).append("(),\n");
+        }
+        source.append("        };\n");
+        source.append("    }\n\n");
+        source.append("}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(BINDER_PACKAGE + "." + INDEX_CLASS).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    /**
+     * The erased source name of a field's type, boxed if requested so it can be used in a cast from Object.
+     */
+    private String getTypeName(VariableElement field, boolean boxed) {
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror type = field.asType();
+        if (type.getKind().isPrimitive()) {
+            if (!boxed) return type.toString();
+            return types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return types.erasure(type).toString();
+    }
+
+}
@@ -0,0 +1,138 @@
+package de.slikey.effectlib.math;
+
+import java.util.Random;
+
+import org.bukkit.util.Vector;
+import org.junit.Test;
+
+import de.slikey.effectlib.util.VectorUtils;
+
+import static org.junit.Assert.assertEquals;
+
+public class PointTransformKernelsTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void rotationMatchesVectorUtils() {
+        Random random = new Random(1);
+        double[] matrix = PointTransformKernels.identity();
+        for (int i = 0; i < 1000; i++) {
+            double angleX = random.nextDouble() * 10 - 5;
+            double angleY = random.nextDouble() * 10 - 5;
+            double angleZ = random.nextDouble() * 10 - 5;
+            Vector vector = new Vector(random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10);
+
+            double[] x = { vector.getX() };
+            double[] y = { vector.getY() };
+            double[] z = { vector.getZ() };
+            PointTransformKernels.setRotation(matrix, angleX, angleY, angleZ);
+            PointTransformKernels.getScalarKernel().transform(matrix, x, y, z, 0, 1);
+            VectorUtils.rotateVector(vector, angleX, angleY, angleZ);
+
+            assertEquals(vector.getX(), x[0], EPSILON);
+            assertEquals(vector.getY(), y[0], EPSILON);
+            assertEquals(vector.getZ(), z[0], EPSILON);
+        }
+    }
+
+    @Test
+    public void multiplyAppliesTheRightMatrixFirst() {
+        double[] translate = PointTransformKernels.setTranslation(PointTransformKernels.identity(), 1, 2, 3);
+        double[] rotate = PointTransformKernels.setRotation(PointTransformKernels.identity(), 0, Math.PI / 2, 0);
+        double[] matrix = PointTransformKernels.multiply(translate, rotate, new double[12]);
+
+        double[] x = { 1 };
+        double[] y = { 0 };
+        double[] z = { 0 };
+        PointTransformKernels.transform(matrix, x, y, z, 1);
+
+        // Rotating (1, 0, 0) by a quarter turn around Y gives (0, 0, -1), then it is moved
+        assertEquals(1, x[0], EPSILON);
+        assertEquals(2, y[0], EPSILON);
+        assertEquals(2, z[0], EPSILON);
+    }
+
+    @Test
+    public void scaleAppliesBeforeTranslation() {
+        double[] matrix = PointTransformKernels.setTranslation(PointTransformKernels.identity(), 1, 1, 1);
+        PointTransformKernels.scale(matrix, 2);
+
+        double[] x = { 1 };
+        double[] y = { 2 };
+        double[] z = { 3 };
+        PointTransformKernels.transform(matrix, x, y, z, 1);
+
+        assertEquals(3, x[0], EPSILON);
+        assertEquals(5, y[0], EPSILON);
+        assertEquals(7, z[0], EPSILON);
+    }
+
+    @Test
+    public void onlyTheGivenRangeIsTransformed() {
+        double[] matrix = PointTransformKernels.setTranslation(PointTransformKernels.identity(), 1, 1, 1);
+        double[] x = new double[10];
+        double[] y = new double[10];
+        double[] z = new double[10];
+        PointTransformKernels.getKernel().transform(matrix, x, y, z, 3, 4);
+
+        for (int i = 0; i < 10; i++) {
+            double expected = i >= 3 && i < 7 ? 1 : 0;
+            assertEquals(expected, x[i], 0);
+            assertEquals(expected, y[i], 0);
+            assertEquals(expected, z[i], 0);
+        }
+    }
+
+    @Test
+    public void kernelMatchesScalarKernel() {
+        // The SIMD kernel when the module is enabled, so all lane counts and the remainder loop are covered
+        PointTransformKernel kernel = PointTransformKernels.getKernel();
+        PointTransformKernel scalar = PointTransformKernels.getScalarKernel();
+        Random random = new Random(2);
+        double[] matrix = PointTransformKernels.setRotation(PointTransformKernels.identity(), 0.3, 1.2, -0.7);
+        PointTransformKernels.setTranslation(PointTransformKernels.scale(matrix, 1.5), 4, -2, 9);
+
+        for (int count = 0; count <= 1030; count += count < 40 ? 1 : 99) {
+            double[] x = new double[count];
+            double[] y = new double[count];
+            double[] z = new double[count];
+            for (int i = 0; i < count; i++) {
+                x[i] = random.nextDouble() * 100 - 50;
+                y[i] = random.nextDouble() * 100 - 50;
+                z[i] = random.nextDouble() * 100 - 50;
+            }
+            double[] sx = x.clone();
+            double[] sy = y.clone();
+            double[] sz = z.clone();
+
+            kernel.transform(matrix, x, y, z, 0, count);
+            scalar.transform(matrix, sx, sy, sz, 0, count);
+            for (int i = 0; i < count; i++) {
+                assertEquals(sx[i], x[i], EPSILON);
+                assertEquals(sy[i], y[i], EPSILON);
+                assertEquals(sz[i], z[i], EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void pointBufferGrowsAndTransforms() {
+        PointBuffer buffer = new PointBuffer(2);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, buffer.add(i, i * 2, i * 3));
+        }
+        buffer.transform(PointTransformKernels.setTranslation(PointTransformKernels.identity(), 1, 0, -1));
+
+        assertEquals(100, buffer.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i + 1, buffer.getX(i), 0);
+            assertEquals(i * 2, buffer.getY(i), 0);
+            assertEquals(i * 3 - 1, buffer.getZ(i), 0);
+        }
+
+        buffer.clear();
+        assertEquals(0, buffer.size());
+    }
+
+}
@@ -0,0 +1,115 @@
+package de.slikey.effectlib.util;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.slikey.effectlib.util.MathUtils.TrigAccuracy;
+
+import static org.junit.Assert.assertEquals;
+
+public class MathUtilsTest {
+
+    private static final int SAMPLES = 100000;
+    // The documented bounds of each tier
+    private static final double FAST_ERROR = 4e-7;
+    private static final double PRECISE_ERROR = 1e-13;
+    // The float table has 16K entries over a full turn
+    private static final double TABLE_ERROR = 1e-3;
+
+    @Test
+    public void fastTierIsAccurate() {
+        checkAccuracy(TrigAccuracy.FAST, 100, FAST_ERROR);
+    }
+
+    @Test
+    public void preciseTierIsAccurate() {
+        checkAccuracy(TrigAccuracy.PRECISE, 100, PRECISE_ERROR);
+    }
+
+    @Test
+    public void exactTierMatchesMath() {
+        checkAccuracy(TrigAccuracy.EXACT, 1e6, 0);
+    }
+
+    @Test
+    public void accuracyHoldsForLargeArguments() {
+        // Effects with a growing step pass angles far from zero
+        checkAccuracy(TrigAccuracy.FAST, 500000, FAST_ERROR);
+        checkAccuracy(TrigAccuracy.PRECISE, 500000, PRECISE_ERROR);
+    }
+
+    @Test
+    public void argumentsTooLargeToReduceFallBackToMath() {
+        double[] angles = { 1e6, -1e6, 1e12, Double.MAX_VALUE };
+        for (double angle : angles) {
+            assertEquals(Math.sin(angle), MathUtils.fastSin(angle, TrigAccuracy.FAST), 0);
+            assertEquals(Math.cos(angle), MathUtils.fastCos(angle, TrigAccuracy.FAST), 0);
+        }
+    }
+
+    @Test
+    public void quadrantBoundaries() {
+        for (int quadrant = -8; quadrant <= 8; quadrant++) {
+            double angle = quadrant * Math.PI / 2;
+            assertEquals(Math.sin(angle), MathUtils.fastSin(angle), PRECISE_ERROR);
+            assertEquals(Math.cos(angle), MathUtils.fastCos(angle), PRECISE_ERROR);
+            assertEquals(Math.sin(angle + Math.PI / 4), MathUtils.fastSin(angle + Math.PI / 4), PRECISE_ERROR);
+            assertEquals(Math.cos(angle - Math.PI / 4), MathUtils.fastCos(angle - Math.PI / 4), PRECISE_ERROR);
+        }
+    }
+
+    @Test
+    public void sinCosMatchesSinAndCos() {
+        Random random = new Random(1);
+        double[] out = new double[2];
+        for (TrigAccuracy accuracy : TrigAccuracy.values()) {
+            for (int i = 0; i < SAMPLES; i++) {
+                double angle = (random.nextDouble() * 2 - 1) * 1000;
+                MathUtils.fastSinCos(angle, out, accuracy);
+                assertEquals(MathUtils.fastSin(angle, accuracy), out[0], 0);
+                assertEquals(MathUtils.fastCos(angle, accuracy), out[1], 0);
+            }
+        }
+    }
+
+    @Test
+    public void defaultAccuracyIsUsed() {
+        Random random = new Random(2);
+        double[] out = new double[2];
+        double[] expected = new double[2];
+        for (int i = 0; i < 1000; i++) {
+            double angle = (random.nextDouble() * 2 - 1) * 1000;
+            assertEquals(MathUtils.fastSin(angle, MathUtils.DEFAULT_TRIG_ACCURACY), MathUtils.fastSin(angle), 0);
+            assertEquals(MathUtils.fastCos(angle, MathUtils.DEFAULT_TRIG_ACCURACY), MathUtils.fastCos(angle), 0);
+            MathUtils.fastSinCos(angle, out);
+            MathUtils.fastSinCos(angle, expected, MathUtils.DEFAULT_TRIG_ACCURACY);
+            assertEquals(expected[0], out[0], 0);
+            assertEquals(expected[1], out[1], 0);
+        }
+    }
+
+    @Test
+    public void tableTrigIsAccurateForSmallArguments() {
+        Random random = new Random(3);
+        for (int i = 0; i < SAMPLES; i++) {
+            float angle = (random.nextFloat() * 2 - 1) * MathUtils.PI2;
+            assertEquals(Math.sin(angle), MathUtils.sin(angle), TABLE_ERROR);
+            assertEquals(Math.cos(angle), MathUtils.cos(angle), TABLE_ERROR);
+        }
+    }
+
+    private static void checkAccuracy(TrigAccuracy accuracy, double range, double maxError) {
+        Random random = new Random(accuracy.ordinal() * 31 + (long) range);
+        double worstSin = 0;
+        double worstCos = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            double angle = (random.nextDouble() * 2 - 1) * range;
+            worstSin = Math.max(worstSin, Math.abs(MathUtils.fastSin(angle, accuracy) - Math.sin(angle)));
+            worstCos = Math.max(worstCos, Math.abs(MathUtils.fastCos(angle, accuracy) - Math.cos(angle)));
+        }
+        assertEquals(accuracy + " sine error", 0, worstSin, maxError);
+        assertEquals(accuracy + " cosine error", 0, worstCos, maxError);
+    }
+
+}
@@ -0,0 +1,93 @@
+package de.slikey.effectlib.util;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RandomUtilsTest {
+
+    private static final int COUNT = 10000;
+    // The table based trig in MathUtils is accurate to about 4e-4
+    private static final double LENGTH_TOLERANCE = 1e-3;
+
+    @Test
+    public void randomVectorsAreUnitVectors() {
+        double[] buffer = new double[COUNT * 3];
+        RandomUtils.getRandomVectors(new Random(1), buffer, COUNT);
+
+        double sumX = 0, sumY = 0, sumZ = 0;
+        for (int i = 0; i < COUNT * 3; i += 3) {
+            double length = Math.sqrt(buffer[i] * buffer[i] + buffer[i + 1] * buffer[i + 1] + buffer[i + 2] * buffer[i + 2]);
+            assertEquals(1, length, LENGTH_TOLERANCE);
+            sumX += buffer[i];
+            sumY += buffer[i + 1];
+            sumZ += buffer[i + 2];
+        }
+
+        // Uniform on the sphere, so the mean is close to the center
+        assertEquals(0, sumX / COUNT, 0.05);
+        assertEquals(0, sumY / COUNT, 0.05);
+        assertEquals(0, sumZ / COUNT, 0.05);
+    }
+
+    @Test
+    public void randomCircleVectorsAreUnitVectors() {
+        double[] buffer = new double[COUNT * 2];
+        RandomUtils.getRandomCircleVectors(new Random(2), buffer, COUNT);
+
+        double sumX = 0, sumZ = 0;
+        for (int i = 0; i < COUNT * 2; i += 2) {
+            assertEquals(1, Math.sqrt(buffer[i] * buffer[i] + buffer[i + 1] * buffer[i + 1]), LENGTH_TOLERANCE);
+            sumX += buffer[i];
+            sumZ += buffer[i + 1];
+        }
+
+        assertEquals(0, sumX / COUNT, 0.05);
+        assertEquals(0, sumZ / COUNT, 0.05);
+    }
+
+    @Test
+    public void randomAnglesAreInRange() {
+        double[] buffer = new double[COUNT];
+        RandomUtils.getRandomAngles(new Random(3), buffer, COUNT);
+
+        for (double angle : buffer) {
+            assertTrue(angle >= 0 && angle < 2 * Math.PI);
+        }
+    }
+
+    @Test
+    public void vectorsFollowTheRandomStream() {
+        double[] first = new double[300];
+        double[] second = new double[300];
+        RandomUtils.getRandomVectors(new Random(4), first, 100);
+        RandomUtils.getRandomVectors(new Random(4), second, 100);
+
+        for (int i = 0; i < first.length; i++) {
+            assertEquals(first[i], second[i], 0);
+        }
+    }
+
+    @Test
+    public void onlyTheRequestedCountIsFilled() {
+        double[] buffer = new double[9];
+        RandomUtils.getRandomVectors(new Random(5), buffer, 2);
+
+        assertEquals(0, buffer[6], 0);
+        assertEquals(0, buffer[7], 0);
+        assertEquals(0, buffer[8], 0);
+    }
+
+    @Test
+    public void ensureCapacityKeepsLargeEnoughBuffers() {
+        double[] buffer = new double[30];
+        assertSame(buffer, RandomUtils.ensureCapacity(buffer, 30));
+        assertEquals(31, RandomUtils.ensureCapacity(buffer, 31).length);
+        assertEquals(5, RandomUtils.ensureCapacity(null, 5).length);
+    }
+
+}